@@ -20,6 +20,7 @@
 package me.shedaniel.autoconfig;
 
 import me.shedaniel.autoconfig.annotation.Config;
+import me.shedaniel.autoconfig.gui.ConfigScreenModel;
 import me.shedaniel.autoconfig.gui.ConfigScreenProvider;
 import me.shedaniel.autoconfig.gui.DefaultGuiProviders;
 import me.shedaniel.autoconfig.gui.DefaultGuiTransformers;
@@ -30,16 +31,38 @@ import me.shedaniel.autoconfig.serializer.ConfigSerializer;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.gui.screen.Screen;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 public class AutoConfig {
     public static final String MOD_ID = "autoconfig1u";
     
-    private static final Map<Class<? extends ConfigData>, ConfigHolder<?>> holders = new HashMap<>();
+    private static final Map<Class<? extends ConfigData>, ConfigHolder<?>> holders = new ConcurrentHashMap<>();
     private static final Map<Class<? extends ConfigData>, GuiRegistry> guiRegistries = new HashMap<>();
+    private static final Map<Class<? extends ConfigData>, ComposedGuiRegistryAccess> guiRegistryAccesses = new HashMap<>();
+    private static final Map<Class<? extends ConfigData>, CompletableFuture<? extends ConfigScreenModel<?>>> screenModels = new ConcurrentHashMap<>();
+    
+    private static final AtomicInteger LOADER_COUNT = new AtomicInteger();
+    /**
+     * Loads lazily registered configs, bounded and separate from the common pool, as loading blocks on file I/O.
+     */
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())),
+            runnable -> {
+                Thread thread = new Thread(runnable, "Cloth Config Loader #" + LOADER_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+    );
     
     private AutoConfig() {
     }
@@ -47,6 +70,44 @@ public class AutoConfig {
     public static <T extends ConfigData> ConfigHolder<T> register(
             Class<T> configClass,
             ConfigSerializer.Factory<T> serializerFactory
+    ) {
+        return register(configClass, serializerFactory, false);
+    }
+    
+    /**
+     * Registers a config like {@link #register(Class, ConfigSerializer.Factory)}, but does not read it from file yet.
+     * <br>
+     * The config is loaded on the first access to the returned holder, or by {@link #prewarmLazyConfigs()}.
+     */
+    public static <T extends ConfigData> ConfigHolder<T> registerLazy(
+            Class<T> configClass,
+            ConfigSerializer.Factory<T> serializerFactory
+    ) {
+        return register(configClass, serializerFactory, true);
+    }
+    
+    /**
+     * Loads all lazily registered configs that have not been accessed yet, in parallel on background threads.
+     * <br>
+     * Register any load listeners before calling this, as the configs may be loaded right away.
+     *
+     * @return a future completing once all configs are loaded
+     */
+    public static CompletableFuture<Void> prewarmLazyConfigs() {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (ConfigHolder<?> holder : List.copyOf(holders.values())) {
+            ConfigManager<?> manager = (ConfigManager<?>) holder;
+            if (!manager.isInitialized()) {
+                futures.add(CompletableFuture.runAsync(manager::initialize, LOADER));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+    
+    private static <T extends ConfigData> ConfigHolder<T> register(
+            Class<T> configClass,
+            ConfigSerializer.Factory<T> serializerFactory,
+            boolean lazy
     ) {
         Objects.requireNonNull(configClass);
         Objects.requireNonNull(serializerFactory);
@@ -62,8 +123,10 @@ public class AutoConfig {
         }
         
         ConfigSerializer<T> serializer = serializerFactory.create(definition, configClass);
-        ConfigManager<T> manager = new ConfigManager<>(definition, configClass, serializer);
-        holders.put(configClass, manager);
+        ConfigManager<T> manager = new ConfigManager<>(definition, configClass, serializer, lazy);
+        if (holders.putIfAbsent(configClass, manager) != null) {
+            throw new RuntimeException(String.format("Config '%s' already registered", configClass));
+        }
         
         return manager;
     }
@@ -84,15 +147,65 @@ public class AutoConfig {
     
     @Environment(EnvType.CLIENT)
     public static <T extends ConfigData> Supplier<Screen> getConfigScreen(Class<T> configClass, Screen parent) {
-        return new ConfigScreenProvider<>(
+        ConfigScreenProvider<T> provider = new ConfigScreenProvider<>(
                 (ConfigManager<T>) AutoConfig.getConfigHolder(configClass),
-                new ComposedGuiRegistryAccess(
-                        getGuiRegistry(configClass),
-                        ClientOnly.defaultGuiRegistry,
-                        new DefaultGuiRegistryAccess()
-                ),
+                getGuiRegistryAccess(configClass),
                 parent
         );
+        provider.setModel((CompletableFuture<ConfigScreenModel<T>>) getScreenModel(configClass, provider));
+        return provider;
+    }
+    
+    /**
+     * Starts building the config screen of a config in the background, e.g. while the client starts,
+     * so that opening it later is quicker. The result is reused every time the screen is opened.
+     *
+     * @return a future completing once the screen is prepared
+     */
+    @Environment(EnvType.CLIENT)
+    public static <T extends ConfigData> CompletableFuture<?> prepareConfigScreen(Class<T> configClass) {
+        return getScreenModel(configClass, new ConfigScreenProvider<>(
+                (ConfigManager<T>) AutoConfig.getConfigHolder(configClass),
+                getGuiRegistryAccess(configClass),
+                null
+        ));
+    }
+    
+    /**
+     * Returns the model being built for a config, or starts building it with the provider.
+     * A model which failed to build is dropped again, so the next screen tries to build it anew.
+     */
+    @Environment(EnvType.CLIENT)
+    private static <T extends ConfigData> CompletableFuture<? extends ConfigScreenModel<?>> getScreenModel(Class<T> configClass, ConfigScreenProvider<T> provider) {
+        CompletableFuture<? extends ConfigScreenModel<?>> model = screenModels.computeIfAbsent(configClass, c -> provider.prepare());
+        // Not within computeIfAbsent, the callback runs right away if the model already failed
+        model.whenComplete((m, throwable) -> {
+            if (throwable != null)
+                screenModels.remove(configClass, model);
+        });
+        return model;
+    }
+    
+    /**
+     * Drops the prepared and kept config screens of a config, so the next screen is built from scratch.
+     * Call this after changing the GUI providers or transformers of the config.
+     */
+    @Environment(EnvType.CLIENT)
+    public static <T extends ConfigData> void invalidateConfigScreen(Class<T> configClass) {
+        screenModels.remove(configClass);
+        ConfigScreenProvider.invalidateCachedScreen((ConfigManager<T>) AutoConfig.getConfigHolder(configClass));
+    }
+    
+    /**
+     * Returns the registry used by config screens, kept per config class so resolved transformers are reused.
+     */
+    @Environment(EnvType.CLIENT)
+    private static <T extends ConfigData> ComposedGuiRegistryAccess getGuiRegistryAccess(Class<T> configClass) {
+        return guiRegistryAccesses.computeIfAbsent(configClass, n -> new ComposedGuiRegistryAccess(
+                getGuiRegistry(configClass),
+                ClientOnly.defaultGuiRegistry,
+                new DefaultGuiRegistryAccess()
+        ));
     }
     
     @Environment(EnvType.CLIENT)
@@ -30,16 +30,109 @@ public interface ConfigHolder<T extends ConfigData> extends Supplier<T> {
     @NotNull
     Class<T> getConfigClass();
 
+    /**
+     * Saves the config held by this holder to file.
+     * <br>
+     * If {@link #isAsyncSaving() async saving} is enabled, the config is copied on the calling thread
+     * and written on a background thread. Saves issued shortly after each other are written only once.
+     */
     void save();
     
+    /**
+     * Blocks until any pending asynchronous save has been written to file.
+     * Pending saves are also flushed when the game exits.
+     */
+    default void flush() {
+    }
+    
+    /**
+     * Returns whether {@link #save()} writes the config on a background thread, disabled by default.
+     */
+    default boolean isAsyncSaving() {
+        return false;
+    }
+    
+    /**
+     * Sets whether {@link #save()} writes the config on a background thread.
+     * <br>
+     * Disabling async saving flushes any pending save.
+     */
+    default void setAsyncSaving(boolean asyncSaving) {
+        if (asyncSaving)
+            throw new UnsupportedOperationException("Async saving is not supported by " + getClass().getName());
+    }
+    
+    /**
+     * Returns whether the config is reloaded when its file is changed by another program, disabled by default.
+     */
+    default boolean isHotReloading() {
+        return false;
+    }
+    
+    /**
+     * Sets whether the config is reloaded when its file is changed by another program.
+     * <br>
+     * Changes are picked up once the file has not been modified for a short while, and reloaded with
+     * {@link #load()} on a background thread, which notifies the load listeners.
+     * Only configs stored in a single file can be hot reloaded.
+     */
+    default void setHotReloading(boolean hotReloading) {
+        if (hotReloading)
+            throw new UnsupportedOperationException("Hot reloading is not supported by " + getClass().getName());
+    }
+    
     boolean load();
     
+    /**
+     * Returns whether the config screen edits a copy of the config, disabled by default.
+     */
+    default boolean isCopyOnWrite() {
+        return false;
+    }
+    
+    /**
+     * Sets whether the config screen edits a copy of the config, which replaces the held config when saved.
+     * <br>
+     * Enable this if the config is read from other threads while the screen is open,
+     * so that they never observe a partially saved config.
+     */
+    default void setCopyOnWrite(boolean copyOnWrite) {
+        if (copyOnWrite)
+            throw new UnsupportedOperationException("Copy on write is not supported by " + getClass().getName());
+    }
+    
+    /**
+     * Returns whether the config screen is kept and shown again when reopened, disabled by default.
+     */
+    default boolean isScreenCaching() {
+        return false;
+    }
+    
+    /**
+     * Sets whether the config screen is kept and shown again when reopened, instead of being built from scratch.
+     * <br>
+     * When a kept screen is shown again, only the entries of fields that changed since, or that were left edited
+     * or invalid, are created again from the current config. Only a few screens are kept at a time.
+     */
+    default void setScreenCaching(boolean screenCaching) {
+        if (screenCaching)
+            throw new UnsupportedOperationException("Screen caching is not supported by " + getClass().getName());
+    }
+    
     T getConfig();
     
     void registerSaveListener(ConfigSerializeEvent.Save<T> save);
     
     void registerLoadListener(ConfigSerializeEvent.Load<T> load);
     
+    /**
+     * Registers a listener that is notified when the held config is replaced and one of the given paths,
+     * or anything inside of them, has changed. Without paths, the listener is notified of any change.
+     */
+    default void registerChangeListener(ConfigSerializeEvent.Change<T> change, String... paths) {
+        throw new UnsupportedOperationException("Change listeners are not supported by " + getClass().getName());
+    }
+    
     @Override
     default T get() {
         return getConfig();
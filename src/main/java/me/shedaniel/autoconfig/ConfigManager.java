@@ -22,39 +22,122 @@ package me.shedaniel.autoconfig;
 import me.shedaniel.autoconfig.annotation.Config;
 import me.shedaniel.autoconfig.event.ConfigSerializeEvent;
 import me.shedaniel.autoconfig.serializer.ConfigSerializer;
+import me.shedaniel.autoconfig.util.ConfigCopier;
+import me.shedaniel.autoconfig.util.ConfigDiff;
 import net.minecraft.util.ActionResult;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 @ApiStatus.Internal
 public class ConfigManager<T extends ConfigData> implements ConfigHolder<T> {
+    /**
+     * Saves issued within this many milliseconds are written to file only once.
+     */
+    private static final long ASYNC_SAVE_DELAY = 200;
+    private static final Set<ConfigManager<?>> ASYNC_MANAGERS = ConcurrentHashMap.newKeySet();
+    private static final ScheduledExecutorService SAVE_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Cloth Config Saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (ConfigManager<?> manager : ASYNC_MANAGERS) {
+                manager.flush();
+            }
+        }, "Cloth Config Save Flusher"));
+    }
+    
     private final Logger logger;
     private final Config definition;
     private final Class<T> configClass;
     private final ConfigSerializer<T> serializer;
     
-    private final List<ConfigSerializeEvent.Save<T>> saveEvent = new ArrayList<>();
-    private final List<ConfigSerializeEvent.Load<T>> loadEvent = new ArrayList<>();
+    private final List<ConfigSerializeEvent.Save<T>> saveEvent = new CopyOnWriteArrayList<>();
+    private final List<ConfigSerializeEvent.Load<T>> loadEvent = new CopyOnWriteArrayList<>();
+    private final List<ChangeListener<T>> changeEvent = new CopyOnWriteArrayList<>();
     
-    private T config;
+    /**
+     * Only replaced by fully loaded and validated configs, so other threads never observe a partially loaded config.
+     */
+    private volatile T config;
+    private volatile boolean copyOnWrite;
+    private volatile boolean screenCaching;
+    private volatile T defaults;
+    private final Object initializationLock = new Object();
+    private volatile boolean initialized;
+    private boolean initializing;
+    private volatile boolean asyncSaving;
+    private final Object writeLock = new Object();
+    private final AtomicReference<T> pendingSave = new AtomicReference<>();
+    private volatile boolean hotReloading;
+    /**
+     * The modification time and size of the config file when this manager last read or wrote it,
+     * used to tell changes by other programs apart from our own writes. A size of {@code -1} means
+     * there was no file.
+     */
+    private volatile FileTime knownModifiedTime;
+    private volatile long knownSize = -1;
     
     ConfigManager(Config definition, Class<T> configClass, ConfigSerializer<T> serializer) {
+        this(definition, configClass, serializer, false);
+    }
+    
+    ConfigManager(Config definition, Class<T> configClass, ConfigSerializer<T> serializer, boolean lazy) {
         logger = LogManager.getLogger();
         
         this.definition = definition;
         this.configClass = configClass;
         this.serializer = serializer;
         
-        if (load()) {
-            save();
+        if (!lazy) {
+            initialize();
         }
     }
     
+    /**
+     * Loads and saves the config for the first time, unless it has already been loaded or set.
+     * Safe to call from multiple threads, the config is only initialized once.
+     */
+    public void initialize() {
+        if (!initialized) {
+            synchronized (initializationLock) {
+                // Listeners reading the config while it is being loaded must not load it again
+                if (!initialized && !initializing) {
+                    initializing = true;
+                    try {
+                        if (load()) {
+                            save();
+                        }
+                    } finally {
+                        initializing = false;
+                    }
+                }
+            }
+        }
+    }
+    
+    public boolean isInitialized() {
+        return initialized;
+    }
+    
     public Config getDefinition() {
         return definition;
     }
@@ -71,6 +154,7 @@ public class ConfigManager<T extends ConfigData> implements ConfigHolder<T> {
     
     @Override
     public void save() {
+        initialize();
         for (ConfigSerializeEvent.Save<T> save : saveEvent) {
             ActionResult result = save.onSave(this, config);
             if (result == ActionResult.FAIL) {
@@ -79,41 +163,210 @@ public class ConfigManager<T extends ConfigData> implements ConfigHolder<T> {
                 break;
             }
         }
+        if (asyncSaving) {
+            if (pendingSave.getAndSet(ConfigCopier.copy(config)) == null) {
+                SAVE_EXECUTOR.schedule(this::flush, ASYNC_SAVE_DELAY, TimeUnit.MILLISECONDS);
+            }
+        } else {
+            synchronized (writeLock) {
+                pendingSave.set(null);
+                write(config);
+            }
+        }
+    }
+    
+    @Override
+    public void flush() {
+        synchronized (writeLock) {
+            T snapshot = pendingSave.getAndSet(null);
+            if (snapshot != null) {
+                write(snapshot);
+            }
+        }
+    }
+    
+    private void write(T config) {
         try {
             serializer.serialize(config);
         } catch (ConfigSerializer.SerializationException e) {
             logger.error("Failed to save config '{}'", configClass, e);
         }
+        rememberFileState();
+    }
+    
+    @Override
+    public boolean isHotReloading() {
+        return hotReloading;
+    }
+    
+    @Override
+    public void setHotReloading(boolean hotReloading) {
+        Path configPath = serializer.getConfigPath();
+        if (configPath == null) {
+            if (hotReloading) {
+                logger.warn("Config '{}' is not stored in a single file and can not be hot reloaded", configClass);
+            }
+            return;
+        }
+        if (this.hotReloading == hotReloading)
+            return;
+        this.hotReloading = hotReloading;
+        try {
+            if (hotReloading) {
+                rememberFileState();
+                ConfigWatcher.getInstance().watch(configPath, this);
+            } else {
+                ConfigWatcher.getInstance().unwatch(configPath);
+            }
+        } catch (IOException | RuntimeException e) {
+            // E.g. file systems without watch support throw unchecked exceptions
+            this.hotReloading = false;
+            logger.error("Failed to watch config '{}' for changes", configClass, e);
+        }
+    }
+    
+    private void rememberFileState() {
+        Path configPath = serializer.getConfigPath();
+        try {
+            if (configPath != null && Files.isRegularFile(configPath)) {
+                knownModifiedTime = Files.getLastModifiedTime(configPath);
+                knownSize = Files.size(configPath);
+                return;
+            }
+        } catch (IOException ignored) {
+        }
+        knownModifiedTime = null;
+        knownSize = -1;
+    }
+    
+    /**
+     * Returns whether the config file was changed since this manager last read or wrote it.
+     */
+    boolean isChangedExternally() {
+        Path configPath = serializer.getConfigPath();
+        try {
+            return configPath != null && Files.isRegularFile(configPath)
+                   && (!Files.getLastModifiedTime(configPath).equals(knownModifiedTime) || Files.size(configPath) != knownSize);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    @Override
+    public boolean isAsyncSaving() {
+        return asyncSaving;
+    }
+    
+    @Override
+    public void setAsyncSaving(boolean asyncSaving) {
+        this.asyncSaving = asyncSaving;
+        if (asyncSaving) {
+            ASYNC_MANAGERS.add(this);
+        } else {
+            flush();
+        }
     }
     
     @Override
     public boolean load() {
+        T oldConfig;
+        T loaded;
+        synchronized (writeLock) {
+            oldConfig = config;
+            // Make sure the file is not overwritten by an older pending save afterwards
+            discardOrFlushPendingSave();
+            loaded = loadFromFile();
+            if (loaded == null) {
+                logger.warn("Using the default config '{}'", configClass);
+            }
+            config = loaded != null ? loaded : createValidatedDefault();
+            rememberFileState();
+        }
+        initialized = true;
+        notifyChanged(oldConfig);
+        return loaded != null;
+    }
+    
+    /**
+     * Reloads the config after its file was changed by another program. Unlike {@link #load()},
+     * the current config is kept if the changed file can not be loaded, e.g. while it is only partially written,
+     * so that the next save does not replace the file with defaults.
+     */
+    void reloadChangedFile() {
+        T oldConfig;
+        synchronized (writeLock) {
+            if (!isChangedExternally())
+                return;
+            oldConfig = config;
+            discardOrFlushPendingSave();
+            T loaded = loadFromFile();
+            rememberFileState();
+            if (loaded == null) {
+                logger.warn("Keeping the current config '{}', its changed file could not be loaded", configClass);
+                return;
+            }
+            config = loaded;
+        }
+        initialized = true;
+        notifyChanged(oldConfig);
+    }
+    
+    /**
+     * Writes the pending save, unless the file was changed by another program since this manager last wrote it.
+     * The pending save is older than such a file and is dropped instead.
+     */
+    private void discardOrFlushPendingSave() {
+        if (pendingSave.get() == null)
+            return;
+        if (isChangedExternally()) {
+            pendingSave.set(null);
+            logger.warn("Discarding unsaved changes of config '{}', its file was changed by another program", configClass);
+        } else {
+            flush();
+        }
+    }
+    
+    /**
+     * @return the loaded and validated config, or {@code null} if it could not be loaded
+     */
+    private T loadFromFile() {
         try {
             T deserialized = serializer.deserialize();
             
             for (ConfigSerializeEvent.Load<T> load : loadEvent) {
                 ActionResult result = load.onLoad(this, deserialized);
                 if (result == ActionResult.FAIL) {
-                    config = serializer.createDefault();
-                    config.validatePostLoad();
-                    return false;
+                    return null;
                 } else if (result != ActionResult.PASS) {
                     break;
                 }
             }
             
-            config = deserialized;
-            config.validatePostLoad();
-            return true;
+            deserialized.validatePostLoad();
+            return deserialized;
         } catch (ConfigSerializer.SerializationException | ConfigData.ValidationException e) {
-            logger.error("Failed to load config '{}', using default!", configClass, e);
-            resetToDefault();
-            return false;
+            logger.error("Failed to load config '{}'", configClass, e);
+            return null;
+        }
+    }
+    
+    private void notifyChanged(T oldConfig) {
+        T newConfig = config;
+        if (oldConfig == null || oldConfig == newConfig || changeEvent.isEmpty())
+            return;
+        Set<String> changedPaths = Collections.unmodifiableSet(ConfigDiff.diff(oldConfig, newConfig));
+        if (changedPaths.isEmpty())
+            return;
+        for (ChangeListener<T> listener : changeEvent) {
+            if (listener.isAffectedBy(changedPaths)) {
+                listener.change.onChange(this, oldConfig, newConfig, changedPaths);
+            }
         }
     }
     
     @Override
     public T getConfig() {
+        initialize();
         return config;
     }
     
@@ -124,21 +377,97 @@ public class ConfigManager<T extends ConfigData> implements ConfigHolder<T> {
 
     @Override
     public void resetToDefault() {
-        config = serializer.createDefault();
+        T oldConfig = this.config;
+        this.config = createValidatedDefault();
+        initialized = true;
+        notifyChanged(oldConfig);
+    }
+    
+    /**
+     * Returns the default config, which is only created once per manager.
+     * <br>
+     * The returned instance is shared and must not be modified, use {@link ConfigCopier#copy(Object)} for a mutable copy.
+     */
+    public T getDefaults() {
+        T defaults = this.defaults;
+        if (defaults == null) {
+            // Racing threads may both create defaults, either is fine to keep
+            this.defaults = defaults = serializer.createDefault();
+        }
+        return defaults;
+    }
+    
+    private T createValidatedDefault() {
+        T config = ConfigCopier.copyExactly(getDefaults());
+        if (config == null) {
+            // The defaults hold values which can not be copied faithfully, construct them anew instead
+            config = serializer.createDefault();
+        }
         try {
             config.validatePostLoad();
         } catch (ConfigData.ValidationException v) {
             throw new RuntimeException("result of createDefault() was invalid!", v);
         }
+        return config;
     }
 
     @Override
     public void setConfig(T config) {
+        T oldConfig = this.config;
         this.config = config;
+        initialized = true;
+        notifyChanged(oldConfig);
     }
 
+    @Override
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+    
+    @Override
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+    }
+    
+    @Override
+    public boolean isScreenCaching() {
+        return screenCaching;
+    }
+    
+    @Override
+    public void setScreenCaching(boolean screenCaching) {
+        this.screenCaching = screenCaching;
+    }
+    
     @Override
     public void registerSaveListener(ConfigSerializeEvent.Save<T> save) {
         this.saveEvent.add(save);
     }
+    
+    @Override
+    public void registerChangeListener(ConfigSerializeEvent.Change<T> change, String... paths) {
+        this.changeEvent.add(new ChangeListener<>(change, paths.clone()));
+    }
+    
+    private static final class ChangeListener<T extends ConfigData> {
+        private final ConfigSerializeEvent.Change<T> change;
+        private final String[] paths;
+        
+        private ChangeListener(ConfigSerializeEvent.Change<T> change, String[] paths) {
+            this.change = change;
+            this.paths = paths;
+        }
+        
+        private boolean isAffectedBy(Set<String> changedPaths) {
+            if (paths.length == 0)
+                return true;
+            for (String changedPath : changedPaths) {
+                for (String path : paths) {
+                    if (ConfigDiff.affects(changedPath, path))
+                        return true;
+                }
+            }
+            return false;
+        }
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package me.shedaniel.autoconfig;
+
+import me.shedaniel.autoconfig.util.Utils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the files of hot reloading configs on a single thread, and reloads a config once its file
+ * has stopped changing for {@link #DEBOUNCE_DELAY} milliseconds.
+ */
+final class ConfigWatcher implements Runnable {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final long DEBOUNCE_DELAY = 500;
+    private static ConfigWatcher instance;
+    
+    private final WatchService watchService;
+    private final Map<Path, ConfigManager<?>> watchedFiles = new ConcurrentHashMap<>();
+    /**
+     * The keys of the directories holding watched files. Only accessed while holding the lock of this watcher.
+     */
+    private final Map<Path, WatchKey> watchedDirectories = new HashMap<>();
+    /**
+     * Files waiting to be reloaded, with the time they were last changed. Only accessed by the watcher thread.
+     */
+    private final Map<Path, Long> pendingReloads = new HashMap<>();
+    
+    private ConfigWatcher() throws IOException {
+        this.watchService = Utils.getConfigFolder().getFileSystem().newWatchService();
+    }
+    
+    static synchronized ConfigWatcher getInstance() throws IOException {
+        if (instance == null) {
+            instance = new ConfigWatcher();
+            Thread thread = new Thread(instance, "Cloth Config Watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return instance;
+    }
+    
+    synchronized void watch(Path file, ConfigManager<?> manager) throws IOException {
+        Path path = file.toAbsolutePath().normalize();
+        Path directory = path.getParent();
+        if (!watchedDirectories.containsKey(directory)) {
+            Files.createDirectories(directory);
+            watchedDirectories.put(directory, directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+        }
+        watchedFiles.put(path, manager);
+    }
+    
+    synchronized void unwatch(Path file) {
+        Path path = file.toAbsolutePath().normalize();
+        watchedFiles.remove(path);
+        Path directory = path.getParent();
+        for (Path watchedFile : watchedFiles.keySet()) {
+            if (watchedFile.getParent().equals(directory))
+                return;
+        }
+        // No watched file is left in the directory
+        WatchKey key = watchedDirectories.remove(directory);
+        if (key != null)
+            key.cancel();
+    }
+    
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                WatchKey key = pendingReloads.isEmpty() ? watchService.take() : watchService.poll(DEBOUNCE_DELAY, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    Path directory = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.context() instanceof Path) {
+                            Path path = directory.resolve((Path) event.context());
+                            if (watchedFiles.containsKey(path)) {
+                                pendingReloads.put(path, System.currentTimeMillis());
+                            }
+                        }
+                    }
+                    key.reset();
+                }
+                reloadSettledFiles();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to process config file changes", e);
+            }
+        }
+    }
+    
+    private void reloadSettledFiles() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, Long>> iterator = pendingReloads.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Long> entry = iterator.next();
+            if (now - entry.getValue() < DEBOUNCE_DELAY)
+                continue;
+            iterator.remove();
+            ConfigManager<?> manager = watchedFiles.get(entry.getKey());
+            if (manager != null && manager.isChangedExternally()) {
+                LOGGER.info("Reloading config '{}' after its file was changed", manager.getConfigClass());
+                manager.reloadChangedFile();
+            }
+        }
+    }
+}
@@ -23,6 +23,8 @@ import me.shedaniel.autoconfig.ConfigData;
 import me.shedaniel.autoconfig.ConfigHolder;
 import net.minecraft.util.ActionResult;
 
+import java.util.Set;
+
 public final class ConfigSerializeEvent {
     private ConfigSerializeEvent() {}
     
@@ -63,4 +65,18 @@ public final class ConfigSerializeEvent {
          */
         ActionResult onLoad(ConfigHolder<T> manager, T newData);
     }
+    
+    @FunctionalInterface
+    public interface Change<T extends ConfigData> {
+        /**
+         * Callback that is called after the config held by the config manager has been replaced,
+         * for example by {@link ConfigHolder#load()}, and a subscribed path has changed.
+         * <p>
+         * Paths are field names separated by {@code .}, with list indices and map keys in brackets,
+         * see {@link me.shedaniel.autoconfig.util.ConfigDiff}.
+         *
+         * @param changedPaths all paths that have changed, not only the subscribed ones
+         */
+        void onChange(ConfigHolder<T> manager, T oldData, T newData, Set<String> changedPaths);
+    }
 }
@@ -0,0 +1,187 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package me.shedaniel.autoconfig.gui;
+
+import me.shedaniel.autoconfig.ConfigData;
+import me.shedaniel.autoconfig.ConfigManager;
+import me.shedaniel.autoconfig.annotation.Config;
+import me.shedaniel.autoconfig.annotation.ConfigEntry;
+import me.shedaniel.autoconfig.gui.registry.api.GuiRegistryAccess;
+import me.shedaniel.autoconfig.util.FieldAccessor;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Everything a config screen needs that does not involve widgets: the categories, fields and translation keys,
+ * as well as the defaults.
+ * <br>
+ * Building a model does not touch the render thread, so it can happen in the background, and a model can be used
+ * for any number of screens.
+ */
+@ApiStatus.Internal
+@Environment(EnvType.CLIENT)
+public final class ConfigScreenModel<T extends ConfigData> {
+    
+    private static final Identifier TRANSPARENT_BACKGROUND = new Identifier(Config.Gui.Background.TRANSPARENT);
+    
+    private final String titleKey;
+    private final boolean transparentBackground;
+    @Nullable
+    private final Identifier background;
+    private final List<CategoryModel> categories;
+    private final T defaults;
+    
+    private ConfigScreenModel(String titleKey, boolean transparentBackground, @Nullable Identifier background, List<CategoryModel> categories, T defaults) {
+        this.titleKey = titleKey;
+        this.transparentBackground = transparentBackground;
+        this.background = background;
+        this.categories = categories;
+        this.defaults = defaults;
+    }
+    
+    /**
+     * Builds the model of a config screen, and loads the config and the GUI providers its fields need.
+     * Safe to call from any thread.
+     */
+    public static <T extends ConfigData> ConfigScreenModel<T> build(
+            ConfigManager<T> manager,
+            GuiRegistryAccess registry,
+            String i18n,
+            BiFunction<String, Field, String> optionFunction,
+            BiFunction<String, String, String> categoryFunction
+    ) {
+        manager.initialize();
+        Class<T> configClass = manager.getConfigClass();
+        
+        boolean transparentBackground = false;
+        Identifier background = null;
+        if (configClass.isAnnotationPresent(Config.Gui.Background.class)) {
+            Identifier bgId = Identifier.tryParse(configClass.getAnnotation(Config.Gui.Background.class).value());
+            if (TRANSPARENT_BACKGROUND.equals(bgId))
+                transparentBackground = true;
+            else
+                background = bgId;
+        }
+        
+        Map<String, Identifier> categoryBackgrounds = new HashMap<>();
+        for (Config.Gui.CategoryBackground ann : configClass.getAnnotationsByType(Config.Gui.CategoryBackground.class)) {
+            if (categoryBackgrounds.put(ann.category(), new Identifier(ann.background())) != null)
+                throw new IllegalStateException(String.format("Duplicate background for category '%s'", ann.category()));
+        }
+        
+        Map<String, CategoryModel> categories = new LinkedHashMap<>();
+        for (Field field : configClass.getDeclaredFields()) {
+            String categoryName = "default";
+            if (field.isAnnotationPresent(ConfigEntry.Category.class))
+                categoryName = field.getAnnotation(ConfigEntry.Category.class).value();
+            String name = categoryName;
+            CategoryModel category = categories.computeIfAbsent(categoryName, n -> new CategoryModel(
+                    categoryFunction.apply(i18n, name),
+                    categoryBackgrounds.get(name)
+            ));
+            
+            FieldAccessor.of(field);
+            registry.prepare(field);
+            category.fields.add(new FieldModel(field, optionFunction.apply(i18n, field)));
+        }
+        
+        return new ConfigScreenModel<>(
+                String.format("%s.title", i18n),
+                transparentBackground,
+                background,
+                List.copyOf(categories.values()),
+                manager.getDefaults()
+        );
+    }
+    
+    public String getTitleKey() {
+        return titleKey;
+    }
+    
+    public boolean isTransparentBackground() {
+        return transparentBackground;
+    }
+    
+    @Nullable
+    public Identifier getBackground() {
+        return background;
+    }
+    
+    public List<CategoryModel> getCategories() {
+        return categories;
+    }
+    
+    /**
+     * Returns the shared defaults of the config, which must not be modified.
+     */
+    public T getDefaults() {
+        return defaults;
+    }
+    
+    public static final class CategoryModel {
+        private final String key;
+        @Nullable
+        private final Identifier background;
+        private final List<FieldModel> fields = new ArrayList<>();
+        
+        private CategoryModel(String key, @Nullable Identifier background) {
+            this.key = key;
+            this.background = background;
+        }
+        
+        public String getKey() {
+            return key;
+        }
+        
+        @Nullable
+        public Identifier getBackground() {
+            return background;
+        }
+        
+        public List<FieldModel> getFields() {
+            return Collections.unmodifiableList(fields);
+        }
+    }
+    
+    public static final class FieldModel {
+        private final Field field;
+        private final String key;
+        
+        private FieldModel(Field field, String key) {
+            this.field = field;
+            this.key = key;
+        }
+        
+        public Field getField() {
+            return field;
+        }
+        
+        public String getKey() {
+            return key;
+        }
+    }
+}
@@ -21,30 +21,54 @@ package me.shedaniel.autoconfig.gui;
 
 import me.shedaniel.autoconfig.ConfigData;
 import me.shedaniel.autoconfig.ConfigManager;
-import me.shedaniel.autoconfig.annotation.Config;
-import me.shedaniel.autoconfig.annotation.ConfigEntry;
 import me.shedaniel.autoconfig.gui.registry.api.GuiRegistryAccess;
+import me.shedaniel.autoconfig.util.ConfigCopier;
+import me.shedaniel.autoconfig.util.FieldAccessor;
+import me.shedaniel.clothconfig2.api.AbstractConfigListEntry;
 import me.shedaniel.clothconfig2.api.ConfigBuilder;
 import me.shedaniel.clothconfig2.api.ConfigCategory;
+import me.shedaniel.clothconfig2.gui.AbstractConfigScreen;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
 import net.minecraft.text.Text;
-import net.minecraft.util.Identifier;
+import net.minecraft.util.Language;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
-import java.util.Arrays;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
-import static java.util.stream.Collectors.*;
-
 @Environment(EnvType.CLIENT)
 public class ConfigScreenProvider<T extends ConfigData> implements Supplier<Screen> {
     
-    private static final Identifier TRANSPARENT_BACKGROUND = new Identifier(Config.Gui.Background.TRANSPARENT);
+    private static final int MAX_CACHED_SCREENS = 8;
+    /**
+     * The last screens of configs with screen caching enabled, least recently opened first.
+     */
+    private static final Map<ConfigManager<?>, CachedScreen<?>> CACHED_SCREENS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ConfigManager<?>, CachedScreen<?>> eldest) {
+            return size() > MAX_CACHED_SCREENS;
+        }
+    };
+    /**
+     * The language and connection the cached screens were built with, the screens are dropped once either changes.
+     */
+    private static Language cachedLanguage;
+    private static WeakReference<ClientPlayNetworkHandler> cachedConnection = new WeakReference<>(null);
+    private static boolean cachedConnected;
     
     private final ConfigManager<T> manager;
     private final GuiRegistryAccess registry;
@@ -53,6 +77,7 @@ public class ConfigScreenProvider<T extends ConfigData> implements Supplier<Scre
     private Function<ConfigBuilder, Screen> buildFunction = ConfigBuilder::build;
     private BiFunction<String, Field, String> optionFunction = (baseI13n, field) -> String.format("%s.option.%s", baseI13n, field.getName());
     private BiFunction<String, String, String> categoryFunction = (baseI13n, categoryName) -> String.format("%s.category.%s", baseI13n, categoryName);
+    private CompletableFuture<ConfigScreenModel<T>> model;
     
     public ConfigScreenProvider(
             ConfigManager<T> manager,
@@ -67,6 +92,7 @@ public class ConfigScreenProvider<T extends ConfigData> implements Supplier<Scre
     @Deprecated
     public void setI13nFunction(Function<ConfigManager<T>, String> i18nFunction) {
         this.i18nFunction = i18nFunction;
+        this.model = null;
     }
     
     @Deprecated
@@ -77,84 +103,255 @@ public class ConfigScreenProvider<T extends ConfigData> implements Supplier<Scre
     @Deprecated
     public void setCategoryFunction(BiFunction<String, String, String> categoryFunction) {
         this.categoryFunction = categoryFunction;
+        this.model = null;
     }
     
     @Deprecated
     public void setOptionFunction(BiFunction<String, Field, String> optionFunction) {
         this.optionFunction = optionFunction;
+        this.model = null;
+    }
+    
+    /**
+     * Starts building the model of the screen on a background thread, unless it is already built or being built.
+     */
+    public CompletableFuture<ConfigScreenModel<T>> prepare() {
+        if (model == null) {
+            Function<ConfigManager<T>, String> i18nFunction = this.i18nFunction;
+            BiFunction<String, Field, String> optionFunction = this.optionFunction;
+            BiFunction<String, String, String> categoryFunction = this.categoryFunction;
+            model = CompletableFuture.supplyAsync(() -> ConfigScreenModel.build(manager, registry, i18nFunction.apply(manager), optionFunction, categoryFunction));
+        }
+        return model;
+    }
+    
+    /**
+     * Uses a model built before, so it does not have to be built again.
+     */
+    @ApiStatus.Internal
+    public void setModel(CompletableFuture<ConfigScreenModel<T>> model) {
+        this.model = model;
+    }
+    
+    private ConfigScreenModel<T> getModel() {
+        if (model != null) {
+            try {
+                return model.join();
+            } catch (CompletionException ignored) {
+                // Build it again below, so the error is thrown from here
+            }
+        }
+        ConfigScreenModel<T> built = ConfigScreenModel.build(manager, registry, i18nFunction.apply(manager), optionFunction, categoryFunction);
+        model = CompletableFuture.completedFuture(built);
+        return built;
+    }
+    
+    /**
+     * Drops the kept screen of a config, e.g. after the GUI providers of its fields changed.
+     */
+    public static void invalidateCachedScreen(ConfigManager<?> manager) {
+        CACHED_SCREENS.remove(manager);
+    }
+    
+    /**
+     * Drops all kept screens after resources were reloaded or the client joined or left a world or server,
+     * as their texts and the screens they return to belong to the previous session.
+     */
+    private static void checkSession() {
+        Language language = Language.getInstance();
+        ClientPlayNetworkHandler connection = MinecraftClient.getInstance().getNetworkHandler();
+        // The connection is held weakly, a collected one still differs by having been connected
+        if (language != cachedLanguage || connection != cachedConnection.get() || (connection != null) != cachedConnected) {
+            cachedLanguage = language;
+            cachedConnection = new WeakReference<>(connection);
+            cachedConnected = connection != null;
+            CACHED_SCREENS.clear();
+        }
     }
     
     @Override
     public Screen get() {
-        T config = manager.getConfig();
-        T defaults = manager.getSerializer().createDefault();
-        
-        String i18n = i18nFunction.apply(manager);
-        
-        ConfigBuilder builder = ConfigBuilder.create().setParentScreen(parent).setTitle(Text.translatable(String.format("%s.title", i18n))).setSavingRunnable(manager::save);
+        ConfigScreenModel<T> model = getModel();
+        checkSession();
+        if (!manager.isScreenCaching()) {
+            CACHED_SCREENS.remove(manager);
+        } else {
+            Screen screen = reuseCachedScreen(model);
+            if (screen != null)
+                return screen;
+        }
         
-        Class<T> configClass = manager.getConfigClass();
+        T config = manager.isCopyOnWrite() ? ConfigCopier.copy(manager.getConfig()) : manager.getConfig();
+        T defaults = model.getDefaults();
+        Binding<T> binding = new Binding<>(config);
         
-        if (configClass.isAnnotationPresent(Config.Gui.Background.class)) {
-            String bg = configClass.getAnnotation(Config.Gui.Background.class).value();
-            Identifier bgId = Identifier.tryParse(bg);
-            if (TRANSPARENT_BACKGROUND.equals(bgId))
-                builder.transparentBackground();
-            else
-                builder.setDefaultBackgroundTexture(bgId);
+        Runnable savingRunnable = manager::save;
+        if (manager.isCopyOnWrite()) {
+            savingRunnable = () -> {
+                // Publish a copy, the screen keeps editing its own instance
+                manager.setConfig(ConfigCopier.copy(config));
+                manager.save();
+            };
         }
+        ConfigBuilder builder = ConfigBuilder.create().setParentScreen(parent).setTitle(ConfigTranslations.text(model.getTitleKey())).setSavingRunnable(savingRunnable);
         
-        Map<String, Identifier> categoryBackgrounds =
-                Arrays.stream(configClass.getAnnotationsByType(Config.Gui.CategoryBackground.class))
-                        .collect(
-                                toMap(
-                                        Config.Gui.CategoryBackground::category,
-                                        ann -> new Identifier(ann.background())
-                                )
-                        );
+        if (model.isTransparentBackground())
+            builder.transparentBackground();
+        else if (model.getBackground() != null)
+            builder.setDefaultBackgroundTexture(model.getBackground());
         
-        Arrays.stream(configClass.getDeclaredFields())
-                .collect(
-                        groupingBy(
-                                field -> getOrCreateCategoryForField(field, builder, categoryBackgrounds, i18n),
-                                LinkedHashMap::new,
-                                toList()
-                        )
-                )
-                .forEach(
-                        (key, value) -> value.forEach(
-                                field -> {
-                                    String optionI13n = optionFunction.apply(i18n, field);
-                                    registry.getAndTransform(optionI13n, field, config, defaults, registry)
-                                            .forEach(key::addEntry);
-                                }
-                        )
-                );
+        for (ConfigScreenModel.CategoryModel categoryModel : model.getCategories()) {
+            ConfigCategory category = getOrCreateCategory(categoryModel, builder);
+            List<BoundField> fields = new ArrayList<>();
+            for (ConfigScreenModel.FieldModel field : categoryModel.getFields()) {
+                fields.add(new BoundField(category.getCategoryKey(), field));
+            }
+            binding.fields.addAll(fields);
+            // Entries are only created once their category is opened, from the values the screen is bound to by then
+            category.addLazyEntries(() -> {
+                List<AbstractConfigListEntry> entries = new ArrayList<>();
+                for (BoundField field : fields) {
+                    field.createEntries(registry, binding.config, defaults);
+                    entries.addAll(field.entries);
+                }
+                return entries;
+            });
+        }
         
-        return buildFunction.apply(builder);
+        Screen screen = buildFunction.apply(builder);
+        if (manager.isScreenCaching() && screen instanceof AbstractConfigScreen) {
+            ((AbstractConfigScreen) screen).setReleaseParentOnClose(true);
+            CACHED_SCREENS.put(manager, new CachedScreen<>((AbstractConfigScreen) screen, model, binding, manager.isCopyOnWrite()));
+        }
+        return screen;
     }
     
-    private ConfigCategory getOrCreateCategoryForField(
-            Field field,
-            ConfigBuilder screenBuilder,
-            Map<String, Identifier> backgroundMap,
-            String baseI13n
+    /**
+     * Returns the kept screen, re-bound to the current values of the config.
+     * <br>
+     * The entries of fields that changed since they were created, or that were edited or invalid,
+     * are created again from the current values, other entries are kept as they are.
+     * The list of a screen is recreated when it is shown, which resets its scroll position.
+     */
+    @Nullable
+    private Screen reuseCachedScreen(ConfigScreenModel<T> model) {
+        @SuppressWarnings("unchecked")
+        CachedScreen<T> cached = (CachedScreen<T>) CACHED_SCREENS.get(manager);
+        if (cached == null)
+            return null;
+        if (cached.model != model || cached.copyOnWrite != manager.isCopyOnWrite()) {
+            CACHED_SCREENS.remove(manager);
+            return null;
+        }
+        T current = manager.getConfig();
+        Binding<T> binding = cached.binding;
+        AbstractConfigScreen screen = cached.screen;
+        // A copy-on-write screen keeps editing its own copy, otherwise the entries must save to the held config
+        boolean replaced = !cached.copyOnWrite && binding.config != current;
+        if (replaced)
+            binding.config = current;
+        T defaults = model.getDefaults();
+        for (BoundField field : binding.fields) {
+            Object value = field.accessor.get(current);
+            if (field.entries == null) {
+                // Not created yet, its entries are created from the bound config later
+                if (cached.copyOnWrite && !field.isStatic() && !ConfigCopier.contentEquals(field.accessor.get(binding.config), value))
+                    field.accessor.set(binding.config, ConfigCopier.copy(value));
+                continue;
+            }
+            if (!replaced && !field.isEditedOrInvalid() && ConfigCopier.contentEquals(field.snapshot, value))
+                continue;
+            if (cached.copyOnWrite && !field.isStatic())
+                field.accessor.set(binding.config, ConfigCopier.copy(value));
+            List<AbstractConfigListEntry> oldEntries = field.entries;
+            field.createEntries(registry, binding.config, defaults);
+            if (oldEntries.isEmpty() && field.entries.isEmpty())
+                continue;
+            if (!screen.replaceEntries(field.categoryKey, oldEntries, field.entries)) {
+                CACHED_SCREENS.remove(manager);
+                return null;
+            }
+        }
+        screen.requestDirtyStateUpdate();
+        screen.setParent(parent);
+        return screen;
+    }
+    
+    private ConfigCategory getOrCreateCategory(
+            ConfigScreenModel.CategoryModel categoryModel,
+            ConfigBuilder screenBuilder
     ) {
-        String categoryName = "default";
-        
-        if (field.isAnnotationPresent(ConfigEntry.Category.class))
-            categoryName = field.getAnnotation(ConfigEntry.Category.class).value();
-        
-        Text categoryKey = Text.translatable(categoryFunction.apply(baseI13n, categoryName));
+        Text categoryKey = ConfigTranslations.text(categoryModel.getKey());
         
         if (!screenBuilder.hasCategory(categoryKey)) {
             ConfigCategory category = screenBuilder.getOrCreateCategory(categoryKey);
-            if (backgroundMap.containsKey(categoryName)) {
-                category.setCategoryBackground(backgroundMap.get(categoryName));
+            if (categoryModel.getBackground() != null) {
+                category.setCategoryBackground(categoryModel.getBackground());
             }
             return category;
         }
         
         return screenBuilder.getOrCreateCategory(categoryKey);
     }
+    
+    private static class CachedScreen<T extends ConfigData> {
+        final AbstractConfigScreen screen;
+        final ConfigScreenModel<T> model;
+        final Binding<T> binding;
+        final boolean copyOnWrite;
+        
+        CachedScreen(AbstractConfigScreen screen, ConfigScreenModel<T> model, Binding<T> binding, boolean copyOnWrite) {
+            this.screen = screen;
+            this.model = model;
+            this.binding = binding;
+            this.copyOnWrite = copyOnWrite;
+        }
+    }
+    
+    /**
+     * The config the entries of a screen read from and save to, and the entries of each of its fields.
+     */
+    private static class Binding<T extends ConfigData> {
+        T config;
+        final List<BoundField> fields = new ArrayList<>();
+        
+        Binding(T config) {
+            this.config = config;
+        }
+    }
+    
+    private static class BoundField {
+        final Text categoryKey;
+        final ConfigScreenModel.FieldModel field;
+        final FieldAccessor accessor;
+        /**
+         * The entries of the field, {@code null} until they are created, and a copy of the value they were created from.
+         */
+        @Nullable
+        List<AbstractConfigListEntry> entries;
+        Object snapshot;
+        
+        BoundField(Text categoryKey, ConfigScreenModel.FieldModel field) {
+            this.categoryKey = categoryKey;
+            this.field = field;
+            this.accessor = FieldAccessor.of(field.getField());
+        }
+        
+        void createEntries(GuiRegistryAccess registry, Object config, Object defaults) {
+            this.entries = new ArrayList<>(registry.getAndTransform(field.getKey(), field.getField(), config, defaults, registry));
+            this.snapshot = ConfigCopier.copy(accessor.get(config));
+        }
+        
+        boolean isStatic() {
+            return Modifier.isStatic(field.getField().getModifiers());
+        }
+        
+        boolean isEditedOrInvalid() {
+            for (AbstractConfigListEntry entry : entries) {
+                if (entry.isEdited() || entry.getConfigError().isPresent())
+                    return true;
+            }
+            return false;
+        }
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package me.shedaniel.autoconfig.gui;
+
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.text.Text;
+import net.minecraft.util.Language;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the translation keys of config screens and their texts, so they are not built again each time a screen is opened.
+ * Every key is only created once, so keys repeating across configs and screens share a single instance.
+ * <br>
+ * The caches are emptied when the language is reloaded.
+ */
+@Environment(EnvType.CLIENT)
+final class ConfigTranslations {
+    private static final String TOOLTIP = "@Tooltip";
+    private static final String PREFIX_TEXT = "@PrefixText";
+    
+    private static final Map<String, Text> TEXTS = new ConcurrentHashMap<>();
+    /**
+     * Keys and texts derived from a key, by key. Field names and classes identify nested keys,
+     * and the names of the annotations they belong to identify the tooltip and prefix texts.
+     */
+    private static final Map<String, Map<Object, Object>> DERIVED = new ConcurrentHashMap<>();
+    private static volatile Language language;
+    
+    private ConfigTranslations() {
+    }
+    
+    static Text text(String key) {
+        checkLanguage();
+        return TEXTS.computeIfAbsent(key, Text::translatable);
+    }
+    
+    /**
+     * Returns the key of a field nested in the option with the given key.
+     */
+    static String childKey(String key, String fieldName) {
+        return (String) derived(key).computeIfAbsent(fieldName, name -> key + "." + name);
+    }
+    
+    /**
+     * Returns the key of the elements of the list option with the given key.
+     */
+    static String elementKey(String key, Class<?> elementType) {
+        return (String) derived(key).computeIfAbsent(elementType, type -> {
+            String optionKey = key.substring(0, key.indexOf(".option") + ".option".length());
+            return optionKey + "." + elementType.getSimpleName();
+        });
+    }
+    
+    static Text[] tooltip(String key, int count) {
+        Map<Object, Object> derived = derived(key);
+        Text[] tooltip = (Text[]) derived.get(TOOLTIP);
+        if (tooltip == null || tooltip.length != count) {
+            tooltip = new Text[count];
+            if (count == 1) {
+                tooltip[0] = Text.translatable(key + "." + TOOLTIP);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    tooltip[i] = Text.translatable(key + "." + TOOLTIP + "[" + i + "]");
+                }
+            }
+            derived.put(TOOLTIP, tooltip);
+        }
+        return tooltip;
+    }
+    
+    static Text prefixText(String key) {
+        return (Text) derived(key).computeIfAbsent(PREFIX_TEXT, annotation -> Text.translatable(key + "." + PREFIX_TEXT));
+    }
+    
+    private static Map<Object, Object> derived(String key) {
+        checkLanguage();
+        return DERIVED.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+    
+    private static void checkLanguage() {
+        Language current = Language.getInstance();
+        if (current != language) {
+            language = current;
+            TEXTS.clear();
+            DERIVED.clear();
+        }
+    }
+}
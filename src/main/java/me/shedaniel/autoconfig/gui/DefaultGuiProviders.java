@@ -23,6 +23,8 @@ import com.google.common.collect.Lists;
 import me.shedaniel.autoconfig.annotation.ConfigEntry;
 import me.shedaniel.autoconfig.gui.registry.GuiRegistry;
 import me.shedaniel.autoconfig.gui.registry.api.GuiRegistryAccess;
+import me.shedaniel.autoconfig.util.ConfigCopier;
+import me.shedaniel.autoconfig.util.FieldAccessor;
 import me.shedaniel.autoconfig.util.Utils;
 import me.shedaniel.clothconfig2.api.AbstractConfigListEntry;
 import me.shedaniel.clothconfig2.api.ConfigEntryBuilder;
@@ -41,8 +43,10 @@ import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
@@ -55,7 +59,7 @@ import static me.shedaniel.autoconfig.util.Utils.setUnsafely;
 public class DefaultGuiProviders {
     
     private static final ConfigEntryBuilder ENTRY_BUILDER = ConfigEntryBuilder.create();
-    private static final Function<Enum<?>, Text> DEFAULT_NAME_PROVIDER = t -> Text.translatable(t instanceof SelectionListEntry.Translatable ? ((SelectionListEntry.Translatable) t).getKey() : t.toString());
+    private static final Function<Enum<?>, Text> DEFAULT_NAME_PROVIDER = t -> ConfigTranslations.text(t instanceof SelectionListEntry.Translatable ? ((SelectionListEntry.Translatable) t).getKey() : t.toString());
     
     private DefaultGuiProviders() {
     }
@@ -73,13 +77,13 @@ public class DefaultGuiProviders {
                     
                     return Collections.singletonList(
                             ENTRY_BUILDER.startIntSlider(
-                                            Text.translatable(i18n),
+                                            ConfigTranslations.text(i18n),
                                             getUnsafely(field, config, 0),
                                             (int) bounds.min(),
                                             (int) bounds.max()
                                     )
-                                    .setDefaultValue(() -> getUnsafely(field, defaults))
-                                    .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                                    .setDefaultValue(defaultValue(field, defaults))
+                                    .setSaveConsumer(saveConsumer(field, config))
                                     .build()
                     );
                 },
@@ -94,13 +98,13 @@ public class DefaultGuiProviders {
                     
                     return Collections.singletonList(
                             ENTRY_BUILDER.startLongSlider(
-                                            Text.translatable(i18n),
+                                            ConfigTranslations.text(i18n),
                                             getUnsafely(field, config, 0L),
                                             bounds.min(),
                                             bounds.max()
                                     )
-                                    .setDefaultValue(() -> getUnsafely(field, defaults))
-                                    .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                                    .setDefaultValue(defaultValue(field, defaults))
+                                    .setSaveConsumer(saveConsumer(field, config))
                                     .build()
                     );
                 },
@@ -115,12 +119,12 @@ public class DefaultGuiProviders {
                     
                     return Collections.singletonList(
                             ENTRY_BUILDER.startColorField(
-                                            Text.translatable(i18n),
+                                            ConfigTranslations.text(i18n),
                                             getUnsafely(field, config, 0)
                                     )
                                     .setAlphaMode(colorPicker.allowAlpha())
-                                    .setDefaultValue(() -> getUnsafely(field, defaults))
-                                    .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                                    .setDefaultValue(defaultValue(field, defaults))
+                                    .setSaveConsumer(saveConsumer(field, config))
                                     .build()
                     );
                 },
@@ -137,7 +141,7 @@ public class DefaultGuiProviders {
         registry.registerAnnotationProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startSubCategory(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         getChildren(i18n, field, config, defaults, guiProvider)
                                 )
                                 .setExpanded(field.getAnnotation(ConfigEntry.Gui.CollapsibleObject.class).startExpanded())
@@ -156,12 +160,12 @@ public class DefaultGuiProviders {
                     }
                     return Collections.singletonList(
                             ENTRY_BUILDER.startSelector(
-                                            Text.translatable(i18n),
+                                            ConfigTranslations.text(i18n),
                                             enums,
                                             getUnsafely(field, config, getUnsafely(field, defaults))
                                     )
-                                    .setDefaultValue(() -> getUnsafely(field, defaults))
-                                    .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                                    .setDefaultValue(defaultValue(field, defaults))
+                                    .setSaveConsumer(saveConsumer(field, config))
                                     .build()
                     );
                 },
@@ -174,7 +178,7 @@ public class DefaultGuiProviders {
                     List<Enum<?>> enums = Arrays.asList(((Class<? extends Enum<?>>) field.getType()).getEnumConstants());
                     return Collections.singletonList(
                             ENTRY_BUILDER.startDropdownMenu(
-                                            Text.translatable(i18n),
+                                            ConfigTranslations.text(i18n),
                                             DropdownMenuBuilder.TopCellElementBuilder.of(
                                                     getUnsafely(field, config, getUnsafely(field, defaults)),
                                                     str -> {
@@ -191,8 +195,8 @@ public class DefaultGuiProviders {
                                             DropdownMenuBuilder.CellCreatorBuilder.of(DEFAULT_NAME_PROVIDER)
                                     )
                                     .setSelections(enums)
-                                    .setDefaultValue(() -> getUnsafely(field, defaults))
-                                    .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                                    .setDefaultValue(defaultValue(field, defaults))
+                                    .setSaveConsumer(saveConsumer(field, config))
                                     .build()
                     );
                 },
@@ -200,37 +204,37 @@ public class DefaultGuiProviders {
         );
         
         registry.registerPredicateProvider((i18n, field, config, defaults, registry1) -> Collections.singletonList(
-                ENTRY_BUILDER.startIntList(Text.translatable(i18n), getUnsafely(field, config))
-                        .setDefaultValue(() -> getUnsafely(field, defaults))
-                        .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                ENTRY_BUILDER.startIntList(ConfigTranslations.text(i18n), getUnsafely(field, config))
+                        .setDefaultValue(defaultValue(field, defaults))
+                        .setSaveConsumer(saveConsumer(field, config))
                         .build()
         ), isListOfType(Integer.class));
         
         registry.registerPredicateProvider((i18n, field, config, defaults, registry1) -> Collections.singletonList(
-                ENTRY_BUILDER.startLongList(Text.translatable(i18n), getUnsafely(field, config))
-                        .setDefaultValue(() -> getUnsafely(field, defaults))
-                        .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                ENTRY_BUILDER.startLongList(ConfigTranslations.text(i18n), getUnsafely(field, config))
+                        .setDefaultValue(defaultValue(field, defaults))
+                        .setSaveConsumer(saveConsumer(field, config))
                         .build()
         ), isListOfType(Long.class));
         
         registry.registerPredicateProvider((i18n, field, config, defaults, registry1) -> Collections.singletonList(
-                ENTRY_BUILDER.startFloatList(Text.translatable(i18n), getUnsafely(field, config))
-                        .setDefaultValue(() -> getUnsafely(field, defaults))
-                        .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                ENTRY_BUILDER.startFloatList(ConfigTranslations.text(i18n), getUnsafely(field, config))
+                        .setDefaultValue(defaultValue(field, defaults))
+                        .setSaveConsumer(saveConsumer(field, config))
                         .build()
         ), isListOfType(Float.class));
         
         registry.registerPredicateProvider((i18n, field, config, defaults, registry1) -> Collections.singletonList(
-                ENTRY_BUILDER.startDoubleList(Text.translatable(i18n), getUnsafely(field, config))
-                        .setDefaultValue(() -> getUnsafely(field, defaults))
-                        .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                ENTRY_BUILDER.startDoubleList(ConfigTranslations.text(i18n), getUnsafely(field, config))
+                        .setDefaultValue(defaultValue(field, defaults))
+                        .setSaveConsumer(saveConsumer(field, config))
                         .build()
         ), isListOfType(Double.class));
         
         registry.registerPredicateProvider((i18n, field, config, defaults, registry1) -> Collections.singletonList(
-                ENTRY_BUILDER.startStrList(Text.translatable(i18n), getUnsafely(field, config))
-                        .setDefaultValue(() -> getUnsafely(field, defaults))
-                        .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                ENTRY_BUILDER.startStrList(ConfigTranslations.text(i18n), getUnsafely(field, config))
+                        .setDefaultValue(defaultValue(field, defaults))
+                        .setSaveConsumer(saveConsumer(field, config))
                         .build()
         ), isListOfType(String.class));
         
@@ -241,26 +245,25 @@ public class DefaultGuiProviders {
             
             Object defaultElemValue = Utils.constructUnsafely(fieldTypeParam);
             
-            String remainingI13n = i18n.substring(0, i18n.indexOf(".option") + ".option".length());
-            String classI13n = String.format("%s.%s", remainingI13n, fieldTypeParam.getSimpleName());
+            String classI13n = ConfigTranslations.elementKey(i18n, fieldTypeParam);
             
             return Collections.singletonList(
                     new NestedListListEntry<Object, MultiElementListEntry<Object>>(
-                            Text.translatable(i18n),
+                            ConfigTranslations.text(i18n),
                             configValue,
                             false,
                             null,
-                            newValue -> setUnsafely(field, config, newValue),
-                            () -> getUnsafely(field, defaults),
+                            saveConsumer(field, config),
+                            defaultValue(field, defaults),
                             ENTRY_BUILDER.getResetButtonKey(),
                             true,
                             false,
                             (elem, nestedListListEntry) -> {
                                 if (elem == null) {
                                     Object newDefaultElemValue = Utils.constructUnsafely(fieldTypeParam);
-                                    return new MultiElementListEntry<>(Text.translatable(classI13n), newDefaultElemValue, (List) getChildren(classI13n, fieldTypeParam, newDefaultElemValue, defaultElemValue, registry1), true);
+                                    return new MultiElementListEntry<>(ConfigTranslations.text(classI13n), newDefaultElemValue, (List) getChildren(classI13n, fieldTypeParam, newDefaultElemValue, defaultElemValue, registry1), true);
                                 } else
-                                    return new MultiElementListEntry<>(Text.translatable(classI13n), elem, (List) getChildren(classI13n, fieldTypeParam, elem, defaultElemValue, registry1), true);
+                                    return new MultiElementListEntry<>(ConfigTranslations.text(classI13n), elem, (List) getChildren(classI13n, fieldTypeParam, elem, defaultElemValue, registry1), true);
                             }
                     )
             );
@@ -269,11 +272,11 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startBooleanToggle(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         getUnsafely(field, config, false)
                                 )
-                                .setDefaultValue(() -> getUnsafely(field, defaults))
-                                .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                                .setDefaultValue(defaultValue(field, defaults))
+                                .setSaveConsumer(saveConsumer(field, config))
                                 .setYesNoTextSupplier(bool -> {
                                     String key = i18n + ".boolean." + bool;
                                     String translate = I18n.translate(key);
@@ -289,11 +292,11 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startIntField(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         getUnsafely(field, config, 0)
                                 )
-                                .setDefaultValue(() -> getUnsafely(field, defaults))
-                                .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                                .setDefaultValue(defaultValue(field, defaults))
+                                .setSaveConsumer(saveConsumer(field, config))
                                 .build()
                 ),
                 int.class, Integer.class
@@ -302,7 +305,7 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startIntList(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         Lists.newArrayList(getUnsafely(field, config, new Integer[0]))
                                 )
                                 .setDefaultValue(() -> defaults == null ? null : Lists.newArrayList((Integer[]) getUnsafely(field, defaults)))
@@ -315,7 +318,7 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startIntList(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         Lists.newArrayList(IntStream.of(getUnsafely(field, config, new int[0])).boxed().collect(Collectors.toList()))
                                 )
                                 .setDefaultValue(() -> defaults == null ? null : Lists.newArrayList(Arrays.asList(ArrayUtils.toObject((int[]) getUnsafely(field, defaults)))))
@@ -328,11 +331,11 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startLongField(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         getUnsafely(field, config, 0L)
                                 )
-                                .setDefaultValue(() -> getUnsafely(field, defaults))
-                                .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                                .setDefaultValue(defaultValue(field, defaults))
+                                .setSaveConsumer(saveConsumer(field, config))
                                 .build()
                 ),
                 long.class, Long.class
@@ -341,7 +344,7 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startLongList(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         Lists.newArrayList(getUnsafely(field, config, new Long[0]))
                                 )
                                 .setDefaultValue(() -> defaults == null ? null : Lists.newArrayList((Long[]) getUnsafely(field, defaults)))
@@ -354,7 +357,7 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startLongList(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         Lists.newArrayList(LongStream.of(getUnsafely(field, config, new long[0])).boxed().collect(Collectors.toList()))
                                 )
                                 .setDefaultValue(() -> defaults == null ? null : Lists.newArrayList(Arrays.asList(ArrayUtils.toObject((long[]) getUnsafely(field, defaults)))))
@@ -367,11 +370,11 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startFloatField(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         getUnsafely(field, config, 0f)
                                 )
-                                .setDefaultValue(() -> getUnsafely(field, defaults))
-                                .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                                .setDefaultValue(defaultValue(field, defaults))
+                                .setSaveConsumer(saveConsumer(field, config))
                                 .build()
                 ),
                 float.class, Float.class
@@ -380,7 +383,7 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startFloatList(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         Lists.newArrayList(getUnsafely(field, config, new Float[0]))
                                 )
                                 .setDefaultValue(() -> defaults == null ? null : Lists.newArrayList((Float[]) getUnsafely(field, defaults)))
@@ -393,7 +396,7 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startFloatList(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         Lists.newArrayList(Arrays.asList(ArrayUtils.toObject(getUnsafely(field, config, new float[0]))))
                                 )
                                 .setDefaultValue(() -> defaults == null ? null : Lists.newArrayList(Arrays.asList(ArrayUtils.toObject((float[]) getUnsafely(field, defaults)))))
@@ -406,11 +409,11 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startDoubleField(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         getUnsafely(field, config, 0.0)
                                 )
-                                .setDefaultValue(() -> getUnsafely(field, defaults))
-                                .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                                .setDefaultValue(defaultValue(field, defaults))
+                                .setSaveConsumer(saveConsumer(field, config))
                                 .build()
                 ),
                 double.class, Double.class
@@ -419,7 +422,7 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startDoubleList(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         Lists.newArrayList(getUnsafely(field, config, new Double[0]))
                                 )
                                 .setDefaultValue(() -> defaults == null ? null : Lists.newArrayList((Double[]) getUnsafely(field, defaults)))
@@ -432,7 +435,7 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startDoubleList(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         Lists.newArrayList(Arrays.asList(ArrayUtils.toObject(getUnsafely(field, config, new double[0]))))
                                 )
                                 .setDefaultValue(() -> defaults == null ? null : Lists.newArrayList(Arrays.asList(ArrayUtils.toObject((double[]) getUnsafely(field, defaults)))))
@@ -445,11 +448,11 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startStrField(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         getUnsafely(field, config, "")
                                 )
-                                .setDefaultValue(() -> getUnsafely(field, defaults))
-                                .setSaveConsumer(newValue -> setUnsafely(field, config, newValue))
+                                .setDefaultValue(defaultValue(field, defaults))
+                                .setSaveConsumer(saveConsumer(field, config))
                                 .build()
                 ),
                 String.class
@@ -458,7 +461,7 @@ public class DefaultGuiProviders {
         registry.registerTypeProvider(
                 (i18n, field, config, defaults, guiProvider) -> Collections.singletonList(
                         ENTRY_BUILDER.startStrList(
-                                        Text.translatable(i18n),
+                                        ConfigTranslations.text(i18n),
                                         Lists.newArrayList(getUnsafely(field, config, new String[0]))
                                 )
                                 .setDefaultValue(() -> defaults == null ? null : Lists.newArrayList((String[]) getUnsafely(field, defaults)))
@@ -479,12 +482,11 @@ public class DefaultGuiProviders {
             
             Object defaultElemValue = Utils.constructUnsafely(fieldTypeParam);
             
-            String remainingI13n = i18n.substring(0, i18n.indexOf(".option") + ".option".length());
-            String classI13n = String.format("%s.%s", remainingI13n, fieldTypeParam.getSimpleName());
+            String classI13n = ConfigTranslations.elementKey(i18n, fieldTypeParam);
             
             return Collections.singletonList(
                     new NestedListListEntry<Object, MultiElementListEntry<Object>>(
-                            Text.translatable(i18n),
+                            ConfigTranslations.text(i18n),
                             configValueAsList,
                             false,
                             null,
@@ -496,7 +498,7 @@ public class DefaultGuiProviders {
                                 setUnsafely(field, config, newArray);
                             },
                             () -> {
-                                Object o = getUnsafely(field, defaults);
+                                Object o = ConfigCopier.copy(getUnsafely(field, defaults));
                                 List<Object> asList = new ArrayList<>(Array.getLength(o));
                                 for (int i = 0; i < Array.getLength(o); i++) {
                                     asList.add(Array.get(o, i));
@@ -509,9 +511,9 @@ public class DefaultGuiProviders {
                             (elem, nestedListListEntry) -> {
                                 if (elem == null) {
                                     Object newDefaultElemValue = Utils.constructUnsafely(fieldTypeParam);
-                                    return new MultiElementListEntry<>(Text.translatable(classI13n), newDefaultElemValue, (List) getChildren(classI13n, fieldTypeParam, newDefaultElemValue, defaultElemValue, registry1), true);
+                                    return new MultiElementListEntry<>(ConfigTranslations.text(classI13n), newDefaultElemValue, (List) getChildren(classI13n, fieldTypeParam, newDefaultElemValue, defaultElemValue, registry1), true);
                                 } else
-                                    return new MultiElementListEntry<>(Text.translatable(classI13n), elem, (List) getChildren(classI13n, fieldTypeParam, elem, defaultElemValue, registry1), true);
+                                    return new MultiElementListEntry<>(ConfigTranslations.text(classI13n), elem, (List) getChildren(classI13n, fieldTypeParam, elem, defaultElemValue, registry1), true);
                             }
                     )
             );
@@ -526,6 +528,17 @@ public class DefaultGuiProviders {
         return registry;
     }
     
+    private static <V> Supplier<V> defaultValue(Field field, Object defaults) {
+        FieldAccessor accessor = FieldAccessor.of(field);
+        // The defaults are shared between screens, so hand out copies of mutable values
+        return () -> ConfigCopier.copy(accessor.get(defaults));
+    }
+    
+    private static <V> Consumer<V> saveConsumer(Field field, Object config) {
+        FieldAccessor accessor = FieldAccessor.of(field);
+        return newValue -> accessor.set(config, newValue);
+    }
+    
     private static List<AbstractConfigListEntry> getChildren(String i18n, Field field, Object config, Object defaults, GuiRegistryAccess guiProvider) {
         return getChildren(i18n, field.getType(), getUnsafely(field, config), getUnsafely(field, defaults), guiProvider);
     }
@@ -534,7 +547,7 @@ public class DefaultGuiProviders {
         return Arrays.stream(fieldType.getDeclaredFields())
                 .map(
                         iField -> {
-                            String iI13n = String.format("%s.%s", i18n, iField.getName());
+                            String iI13n = ConfigTranslations.childKey(i18n, iField.getName());
                             return guiProvider.getAndTransform(iI13n, iField, iConfig, iDefaults, guiProvider);
                         }
                 )
@@ -35,7 +35,6 @@ import java.util.Collections;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 @Environment(EnvType.CLIENT)
 public class DefaultGuiTransformers {
@@ -54,20 +53,8 @@ public class DefaultGuiTransformers {
                                 ConfigEntry.Gui.Tooltip tooltip = field.getAnnotation(ConfigEntry.Gui.Tooltip.class);
                                 if (tooltip.count() == 0) {
                                     tryRemoveTooltip(gui);
-                                } else if (tooltip.count() == 1) {
-                                    tryApplyTooltip(
-                                            gui,
-                                            new Text[]{
-                                                    Text.translatable(String.format("%s.%s", i18n, "@Tooltip"))
-                                            }
-                                    );
                                 } else {
-                                    tryApplyTooltip(
-                                            gui, IntStream.range(0, tooltip.count()).boxed()
-                                                    .map(i -> String.format("%s.%s[%d]", i18n, "@Tooltip", i))
-                                                    .map(Text::translatable)
-                                                    .toArray(Text[]::new)
-                                    );
+                                    tryApplyTooltip(gui, ConfigTranslations.tooltip(i18n, tooltip.count()));
                                 }
                             }
                         })
@@ -103,9 +90,8 @@ public class DefaultGuiTransformers {
         registry.registerAnnotationTransformer(
                 (guis, i18n, field, config, defaults, guiProvider) -> {
                     ArrayList<AbstractConfigListEntry> ret = new ArrayList<>(guis);
-                    String text = String.format("%s.%s", i18n, "@PrefixText");
-                    TextListEntry element = ENTRY_BUILDER.startTextDescription(Text.translatable(text)).build();
-                    String s = Text.translatable(i18n).getString().toLowerCase(Locale.ROOT);
+                    TextListEntry element = ENTRY_BUILDER.startTextDescription(ConfigTranslations.prefixText(i18n)).build();
+                    String s = ConfigTranslations.text(i18n).getString().toLowerCase(Locale.ROOT);
                     if (!s.isEmpty()) {
                         element.appendSearchTags(Lists.newArrayList(s.split(" ")));
                     }
@@ -20,19 +20,23 @@
 package me.shedaniel.autoconfig.gui.registry;
 
 import me.shedaniel.autoconfig.gui.registry.api.GuiRegistryAccess;
+import me.shedaniel.autoconfig.gui.registry.api.GuiTransformer;
 import me.shedaniel.clothconfig2.api.AbstractConfigListEntry;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 
 import java.lang.reflect.Field;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Environment(EnvType.CLIENT)
 public class ComposedGuiRegistryAccess implements GuiRegistryAccess {
     
     private List<GuiRegistryAccess> children;
+    /**
+     * The transformers of all children matching each field, in the order they are applied.
+     */
+    private final Map<Field, TransformerChain> transformerChains = new ConcurrentHashMap<>();
     
     public ComposedGuiRegistryAccess(GuiRegistryAccess... children) {
         this.children = Arrays.asList(children);
@@ -61,9 +65,60 @@ public class ComposedGuiRegistryAccess implements GuiRegistryAccess {
             Object defaults,
             GuiRegistryAccess registry
     ) {
-        for (GuiRegistryAccess child : children) {
-            guis = child.transform(guis, i18n, field, config, defaults, registry);
+        for (GuiTransformer transformer : getTransformerChain(field)) {
+            guis = transformer.transform(guis, i18n, field, config, defaults, registry);
         }
         return guis;
     }
+    
+    @Override
+    public void prepare(Field field) {
+        for (GuiRegistryAccess child : children) {
+            child.prepare(field);
+        }
+        getTransformerChain(field);
+    }
+    
+    private List<GuiTransformer> getTransformerChain(Field field) {
+        int version = getTransformerVersion();
+        TransformerChain chain = transformerChains.get(field);
+        if (chain == null || chain.version != version) {
+            chain = new TransformerChain(version, Collections.unmodifiableList(resolveTransformerChain(field)));
+            transformerChains.put(field, chain);
+        }
+        return chain.transformers;
+    }
+    
+    private List<GuiTransformer> resolveTransformerChain(Field field) {
+        List<GuiTransformer> transformers = new ArrayList<>();
+        for (GuiRegistryAccess child : children) {
+            if (child instanceof GuiRegistry) {
+                transformers.addAll(((GuiRegistry) child).getTransformers(field));
+            } else if (!(child instanceof DefaultGuiRegistryAccess)) {
+                // Other registries can not be looked into, apply them as a whole
+                transformers.add(child);
+            }
+        }
+        return transformers;
+    }
+    
+    private int getTransformerVersion() {
+        int version = 0;
+        for (GuiRegistryAccess child : children) {
+            if (child instanceof GuiRegistry) {
+                version += ((GuiRegistry) child).getTransformerVersion();
+            }
+        }
+        return version;
+    }
+    
+    private static class TransformerChain {
+        final int version;
+        final List<GuiTransformer> transformers;
+        
+        TransformerChain(int version, List<GuiTransformer> transformers) {
+            this.version = version;
+            this.transformers = transformers;
+        }
+    }
 }
@@ -29,29 +29,30 @@ import net.fabricmc.api.Environment;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
-import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Environment(EnvType.CLIENT)
 public final class GuiRegistry implements GuiRegistryAccess {
     
-    private Map<Priority, List<ProviderEntry>> providers = new HashMap<>();
-    private List<TransformerEntry> transformers = new ArrayList<>();
+    /**
+     * Annotation providers by annotation type, each list in registration order.
+     */
+    private final Map<Class<? extends Annotation>, List<AnnotationProviderEntry>> annotationProviders = new HashMap<>();
+    private final List<ProviderEntry> predicateProviders = new ArrayList<>();
+    private final Map<Class<?>, GuiProvider> typeProviders = new HashMap<>();
+    private final List<TransformerEntry> transformers = new ArrayList<>();
+    private int annotationProviderCount;
     
-    public GuiRegistry() {
-        for (Priority priority : Priority.values()) {
-            providers.put(priority, new ArrayList<>());
-        }
-    }
+    /**
+     * An immutable copy of the registrations above along with the fields resolved against it,
+     * recreated on first use after anything is registered.
+     * Fields are resolved outside of any lock, so providers and predicates may use the registry themselves.
+     */
+    private volatile Registrations registrations;
+    private volatile int transformerVersion;
     
-    private static <T> Optional<T> firstPresent(Stream<Supplier<Optional<T>>> optionals) {
-        return optionals
-                .map(Supplier::get)
-                .filter(Optional::isPresent)
-                .findFirst()
-                .orElse(Optional.empty());
+    public GuiRegistry() {
     }
     
     @Override
@@ -62,19 +63,18 @@ public final class GuiRegistry implements GuiRegistryAccess {
             Object defaults,
             GuiRegistryAccess registry
     ) {
-        return firstPresent(
-                Arrays.stream(Priority.values())
-                        .map(priority ->
-                                (Supplier<Optional<ProviderEntry>>) () ->
-                                        providers.get(priority).stream()
-                                                .filter(entry -> entry.predicate.test(field))
-                                                .findFirst()
-                        )
-        )
-                .map(entry -> entry.provider.get(i18n, field, config, defaults, registry))
+        return getRegistrations().getProvider(field)
+                .map(provider -> provider.get(i18n, field, config, defaults, registry))
                 .orElse(null);
     }
     
+    @Override
+    public void prepare(Field field) {
+        Registrations registrations = getRegistrations();
+        registrations.getProvider(field);
+        registrations.getTransformers(field);
+    }
+    
     @Override
     public List<AbstractConfigListEntry> transform(
             List<AbstractConfigListEntry> guis,
@@ -84,53 +84,75 @@ public final class GuiRegistry implements GuiRegistryAccess {
             Object defaults,
             GuiRegistryAccess registry
     ) {
-        List<GuiTransformer> matchedTransformers = this.transformers.stream()
-                .filter(entry -> entry.predicate.test(field))
-                .map(entry -> entry.transformer)
-                .collect(Collectors.toList());
-        
-        for (GuiTransformer transformer : matchedTransformers) {
+        for (GuiTransformer transformer : getTransformers(field)) {
             guis = transformer.transform(guis, i18n, field, config, defaults, registry);
         }
         
         return guis;
     }
     
-    private void registerProvider(Priority priority, GuiProvider provider, Predicate<Field> predicate) {
-        providers.computeIfAbsent(priority, p -> new ArrayList<>()).add(new ProviderEntry(predicate, provider));
+    /**
+     * Returns the transformers matching the field, in the order {@link #transform} applies them.
+     */
+    List<GuiTransformer> getTransformers(Field field) {
+        return getRegistrations().getTransformers(field);
     }
     
-    public final void registerTypeProvider(GuiProvider provider, Class... types) {
+    /**
+     * Returns a number that changes whenever a transformer is registered.
+     */
+    int getTransformerVersion() {
+        return transformerVersion;
+    }
+    
+    private Registrations getRegistrations() {
+        Registrations registrations = this.registrations;
+        if (registrations == null) {
+            synchronized (this) {
+                registrations = this.registrations;
+                if (registrations == null)
+                    this.registrations = registrations = new Registrations(this);
+            }
+        }
+        return registrations;
+    }
+    
+    private void invalidate() {
+        registrations = null;
+    }
+    
+    public final synchronized void registerTypeProvider(GuiProvider provider, Class... types) {
         for (Class type : types) {
-            registerProvider(Priority.LAST, provider, field -> type == field.getType());
+            // Earlier registrations take precedence
+            typeProviders.putIfAbsent(type, provider);
         }
+        invalidate();
     }
     
-    public final void registerPredicateProvider(GuiProvider provider, Predicate<Field> predicate) {
-        registerProvider(Priority.NORMAL, provider, predicate);
+    public final synchronized void registerPredicateProvider(GuiProvider provider, Predicate<Field> predicate) {
+        predicateProviders.add(new ProviderEntry(predicate, provider));
+        invalidate();
     }
     
     @SafeVarargs
     public final void registerAnnotationProvider(GuiProvider provider, Class<? extends Annotation>... types) {
-        for (Class<? extends Annotation> type : types) {
-            registerProvider(Priority.FIRST, provider, field -> field.isAnnotationPresent(type));
-        }
+        registerAnnotationProvider(provider, field -> true, types);
     }
     
     @SafeVarargs
-    public final void registerAnnotationProvider(GuiProvider provider, Predicate<Field> predicate, Class<? extends Annotation>... types) {
+    public final synchronized void registerAnnotationProvider(GuiProvider provider, Predicate<Field> predicate, Class<? extends Annotation>... types) {
         for (Class<? extends Annotation> type : types) {
-            registerProvider(
-                    Priority.FIRST,
-                    provider,
-                    field -> predicate.test(field) && field.isAnnotationPresent(type)
-            );
+            annotationProviders.computeIfAbsent(type, t -> new ArrayList<>())
+                    .add(new AnnotationProviderEntry(annotationProviderCount++, predicate, provider));
         }
+        invalidate();
     }
     
     @SuppressWarnings("WeakerAccess")
-    public void registerPredicateTransformer(GuiTransformer transformer, Predicate<Field> predicate) {
+    public synchronized void registerPredicateTransformer(GuiTransformer transformer, Predicate<Field> predicate) {
         transformers.add(new TransformerEntry(predicate, transformer));
+        transformerVersion++;
+        invalidate();
     }
     
     @SafeVarargs
@@ -142,14 +164,86 @@ public final class GuiRegistry implements GuiRegistryAccess {
     @SafeVarargs
     public final void registerAnnotationTransformer(GuiTransformer transformer, Predicate<Field> predicate, Class<? extends Annotation>... types) {
         for (Class<? extends Annotation> type : types) {
-            registerPredicateTransformer(transformer, field -> predicate.test(field) && field.isAnnotationPresent(type));
+            registerPredicateTransformer(transformer, field -> field.isAnnotationPresent(type) && predicate.test(field));
         }
     }
     
-    private enum Priority {
-        FIRST,
-        NORMAL,
-        LAST
+    private static class Registrations {
+        private final Map<Class<? extends Annotation>, List<AnnotationProviderEntry>> annotationProviders = new HashMap<>();
+        private final List<ProviderEntry> predicateProviders;
+        private final Map<Class<?>, GuiProvider> typeProviders;
+        private final List<TransformerEntry> transformers;
+        private final Map<Field, Optional<GuiProvider>> resolvedProviders = new ConcurrentHashMap<>();
+        private final Map<Field, List<GuiTransformer>> resolvedTransformers = new ConcurrentHashMap<>();
+        
+        Registrations(GuiRegistry registry) {
+            registry.annotationProviders.forEach((type, entries) -> annotationProviders.put(type, List.copyOf(entries)));
+            this.predicateProviders = List.copyOf(registry.predicateProviders);
+            this.typeProviders = new HashMap<>(registry.typeProviders);
+            this.transformers = List.copyOf(registry.transformers);
+        }
+        
+        Optional<GuiProvider> getProvider(Field field) {
+            Optional<GuiProvider> provider = resolvedProviders.get(field);
+            if (provider == null) {
+                provider = resolveProvider(field);
+                Optional<GuiProvider> existing = resolvedProviders.putIfAbsent(field, provider);
+                if (existing != null)
+                    provider = existing;
+            }
+            return provider;
+        }
+        
+        List<GuiTransformer> getTransformers(Field field) {
+            List<GuiTransformer> matchedTransformers = resolvedTransformers.get(field);
+            if (matchedTransformers == null) {
+                matchedTransformers = resolveTransformers(field);
+                List<GuiTransformer> existing = resolvedTransformers.putIfAbsent(field, matchedTransformers);
+                if (existing != null)
+                    matchedTransformers = existing;
+            }
+            return matchedTransformers;
+        }
+        
+        /**
+         * Finds the provider for a field: annotation providers come first, then predicate providers, then type providers.
+         * Within each of these, the earliest registered provider wins.
+         */
+        private Optional<GuiProvider> resolveProvider(Field field) {
+            AnnotationProviderEntry annotationMatch = null;
+            for (Annotation annotation : field.getDeclaredAnnotations()) {
+                List<AnnotationProviderEntry> entries = annotationProviders.get(annotation.annotationType());
+                if (entries == null)
+                    continue;
+                for (AnnotationProviderEntry entry : entries) {
+                    if (annotationMatch != null && annotationMatch.order < entry.order)
+                        break;
+                    if (entry.predicate.test(field)) {
+                        annotationMatch = entry;
+                        break;
+                    }
+                }
+            }
+            if (annotationMatch != null)
+                return Optional.of(annotationMatch.provider);
+            
+            for (ProviderEntry entry : predicateProviders) {
+                if (entry.predicate.test(field))
+                    return Optional.of(entry.provider);
+            }
+            
+            return Optional.ofNullable(typeProviders.get(field.getType()));
+        }
+        
+        private List<GuiTransformer> resolveTransformers(Field field) {
+            List<GuiTransformer> matchedTransformers = new ArrayList<>();
+            for (TransformerEntry entry : transformers) {
+                if (entry.predicate.test(field)) {
+                    matchedTransformers.add(entry.transformer);
+                }
+            }
+            return Collections.unmodifiableList(matchedTransformers);
+        }
     }
     
     private static class ProviderEntry {
@@ -162,6 +256,15 @@ public final class GuiRegistry implements GuiRegistryAccess {
         }
     }
     
+    private static class AnnotationProviderEntry extends ProviderEntry {
+        final int order;
+        
+        AnnotationProviderEntry(int order, Predicate<Field> predicate, GuiProvider provider) {
+            super(predicate, provider);
+            this.order = order;
+        }
+    }
+    
     private static class TransformerEntry {
         final Predicate<Field> predicate;
         final GuiTransformer transformer;
@@ -37,4 +37,11 @@ public interface GuiRegistryAccess extends GuiProvider, GuiTransformer {
     ) {
         return transform(get(i18n, field, config, defaults, registry), i18n, field, config, defaults, registry);
     }
+    
+    /**
+     * Looks up the providers and transformers for a field ahead of time, so building its entries later is faster.
+     * May be called from any thread.
+     */
+    default void prepare(Field field) {
+    }
 }
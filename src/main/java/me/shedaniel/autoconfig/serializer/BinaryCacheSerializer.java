@@ -0,0 +1,589 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package me.shedaniel.autoconfig.serializer;
+
+import me.shedaniel.autoconfig.ConfigData;
+import me.shedaniel.autoconfig.util.FieldAccessor;
+import me.shedaniel.autoconfig.util.Utils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * This serializer wraps a file based serializer and keeps a compact binary copy of the config next to its file.
+ * As long as the size, modification time and checksum of the file are unchanged, the config is read
+ * from the binary copy instead of being parsed again.
+ * <p>
+ * The binary copy is keyed by the field layout of the config class, and is ignored once the class changes.
+ * Configs holding values that can not be encoded, or serializers that do not use a single file,
+ * always go through the wrapped serializer.
+ */
+public final class BinaryCacheSerializer<T extends ConfigData> implements ConfigSerializer<T> {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int MAGIC = 0x43434243;
+    private static final int VERSION = 2;
+    
+    private final ConfigSerializer<T> serializer;
+    private final Class<T> configClass;
+    private final Codec codec;
+    
+    private BinaryCacheSerializer(ConfigSerializer<T> serializer, Class<T> configClass) {
+        this.serializer = serializer;
+        this.configClass = configClass;
+        this.codec = new Codec(configClass);
+    }
+    
+    public static <T extends ConfigData> Factory<T> wrap(Factory<T> inner) {
+        return (definition, configClass) -> new BinaryCacheSerializer<>(inner.create(definition, configClass), configClass);
+    }
+    
+    @Override
+    public void serialize(T config) throws SerializationException {
+        serializer.serialize(config);
+        Path configPath = getConfigPath();
+        if (configPath != null) {
+            writeCache(configPath, config);
+        }
+    }
+    
+    @Override
+    public T deserialize() throws SerializationException {
+        Path configPath = getConfigPath();
+        if (configPath == null || !Files.isRegularFile(configPath)) {
+            return serializer.deserialize();
+        }
+        T cached = readCache(configPath);
+        if (cached != null) {
+            return cached;
+        }
+        T ret = serializer.deserialize();
+        writeCache(configPath, ret);
+        return ret;
+    }
+    
+    @Override
+    public T createDefault() {
+        return serializer.createDefault();
+    }
+    
+    @Override
+    public Path getConfigPath() {
+        return serializer.getConfigPath();
+    }
+    
+    private static Path getCachePath(Path configPath) {
+        return configPath.resolveSibling(configPath.getFileName() + ".cache");
+    }
+    
+    private T readCache(Path configPath) {
+        Path cachePath = getCachePath(configPath);
+        if (!Files.isRegularFile(cachePath))
+            return null;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cachePath)))) {
+            if (!readHeader(input, configPath))
+                return null;
+            return configClass.cast(codec.read(input, configClass));
+        } catch (IOException | RuntimeException | ReflectiveOperationException e) {
+            LOGGER.debug("Ignoring binary cache of config '{}'", configClass, e);
+            // The header still matches the config file, drop the cache so that it is written again
+            deleteCache(cachePath);
+            return null;
+        }
+    }
+    
+    private void writeCache(Path configPath, T config) {
+        Path cachePath = getCachePath(configPath);
+        try {
+            if (Files.isRegularFile(cachePath)) {
+                try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cachePath)))) {
+                    if (readHeader(input, configPath))
+                        return;
+                }
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(codec.layoutHash);
+                FileStamp stamp = FileStamp.of(configPath);
+                output.writeLong(stamp.size);
+                output.writeLong(stamp.modified);
+                output.writeLong(stamp.checksum);
+                codec.write(output, config, configClass);
+            }
+            Files.write(cachePath, bytes.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Failed to write binary cache of config '{}'", configClass, e);
+            deleteCache(cachePath);
+        }
+    }
+    
+    private static void deleteCache(Path cachePath) {
+        try {
+            Files.deleteIfExists(cachePath);
+        } catch (IOException ignored) {
+        }
+    }
+    
+    private boolean readHeader(DataInputStream input, Path configPath) throws IOException {
+        if (input.readInt() != MAGIC || input.readInt() != VERSION || input.readLong() != codec.layoutHash)
+            return false;
+        long size = input.readLong();
+        long modified = input.readLong();
+        long checksum = input.readLong();
+        // Size and modification time are cheap to check, only compute the checksum if they match
+        if (size != Files.size(configPath) || modified != Files.getLastModifiedTime(configPath).toMillis())
+            return false;
+        return checksum == FileStamp.checksum(configPath);
+    }
+    
+    private static final class FileStamp {
+        private final long size;
+        private final long modified;
+        private final long checksum;
+        
+        private FileStamp(long size, long modified, long checksum) {
+            this.size = size;
+            this.modified = modified;
+            this.checksum = checksum;
+        }
+        
+        private static FileStamp of(Path path) throws IOException {
+            return new FileStamp(Files.size(path), Files.getLastModifiedTime(path).toMillis(), checksum(path));
+        }
+        
+        private static long checksum(Path path) throws IOException {
+            CRC32C crc = new CRC32C();
+            byte[] buffer = new byte[8192];
+            try (InputStream stream = Files.newInputStream(path)) {
+                int read;
+                while ((read = stream.read(buffer)) >= 0) {
+                    crc.update(buffer, 0, read);
+                }
+            }
+            return crc.getValue();
+        }
+    }
+    
+    /**
+     * Encodes config values as tagged binary values. Fields are written in declaration order without names,
+     * which is why the cache is keyed by {@link #layoutHash}.
+     * <p>
+     * Every value is checked against the declared type it is read into or written from. Objects and enums
+     * must be classes of the config's layout, and collections and maps must be {@code java.util} or layout classes,
+     * so a cache file can not make the reader instantiate arbitrary classes.
+     */
+    private static final class Codec {
+        private static final byte NULL = 0;
+        private static final byte BOOLEAN = 1;
+        private static final byte BYTE = 2;
+        private static final byte SHORT = 3;
+        private static final byte CHAR = 4;
+        private static final byte INT = 5;
+        private static final byte LONG = 6;
+        private static final byte FLOAT = 7;
+        private static final byte DOUBLE = 8;
+        private static final byte STRING = 9;
+        private static final byte ENUM = 10;
+        private static final byte ARRAY = 11;
+        private static final byte COLLECTION = 12;
+        private static final byte MAP = 13;
+        private static final byte OBJECT = 14;
+        private static final byte BIG_INTEGER = 15;
+        private static final byte BIG_DECIMAL = 16;
+        private static final byte UUID = 17;
+        
+        private static final ClassValue<List<FieldAccessor>> FIELDS = new ClassValue<>() {
+            @Override
+            protected List<FieldAccessor> computeValue(Class<?> type) {
+                List<FieldAccessor> fields = new ArrayList<>();
+                for (Field field : getSerializedFields(type)) {
+                    fields.add(FieldAccessor.of(field));
+                }
+                return fields;
+            }
+        };
+        
+        private final ClassLoader classLoader;
+        private final Map<String, Class<?>> layoutTypes = new HashMap<>();
+        private final long layoutHash;
+        
+        private Codec(Class<?> configClass) {
+            this.classLoader = configClass.getClassLoader();
+            StringBuilder layout = new StringBuilder();
+            appendLayout(layout, configClass);
+            CRC32C crc = new CRC32C();
+            crc.update(layout.toString().getBytes(StandardCharsets.UTF_8));
+            this.layoutHash = ((long) layout.length() << 32) | crc.getValue();
+        }
+        
+        private static List<Field> getSerializedFields(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> cls = type; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+                for (Field field : cls.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    // Text formats skip transient fields as well, leaving them at their initial value
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        }
+        
+        /**
+         * Appends the fields of {@code type}, and of the config defined classes referenced by their types, to the layout.
+         */
+        private void appendLayout(StringBuilder layout, Class<?> type) {
+            if (layoutTypes.putIfAbsent(type.getName(), type) != null)
+                return;
+            layout.append(type.getName()).append('{');
+            for (Field field : getSerializedFields(type)) {
+                layout.append(field.getName()).append(':').append(field.getGenericType().getTypeName()).append(';');
+                List<Class<?>> referencedTypes = new ArrayList<>();
+                collectClasses(field.getGenericType(), referencedTypes);
+                for (Class<?> referencedType : referencedTypes) {
+                    if (!referencedType.isPrimitive() && !referencedType.getModule().isNamed()) {
+                        appendLayout(layout, referencedType);
+                    }
+                }
+            }
+            layout.append('}');
+        }
+        
+        private static void collectClasses(Type type, List<Class<?>> classes) {
+            if (type instanceof Class<?> cls) {
+                while (cls.isArray()) {
+                    cls = cls.getComponentType();
+                }
+                classes.add(cls);
+            } else if (type instanceof ParameterizedType parameterizedType) {
+                collectClasses(parameterizedType.getRawType(), classes);
+                for (Type argument : parameterizedType.getActualTypeArguments()) {
+                    collectClasses(argument, classes);
+                }
+            } else if (type instanceof GenericArrayType arrayType) {
+                collectClasses(arrayType.getGenericComponentType(), classes);
+            } else if (type instanceof WildcardType wildcardType) {
+                for (Type bound : wildcardType.getUpperBounds()) {
+                    collectClasses(bound, classes);
+                }
+            }
+        }
+        
+        private void write(DataOutputStream output, Object value, Type expected) throws IOException {
+            if (value == null) {
+                output.writeByte(NULL);
+            } else if (value instanceof Boolean) {
+                output.writeByte(BOOLEAN);
+                output.writeBoolean((Boolean) value);
+            } else if (value instanceof Byte) {
+                output.writeByte(BYTE);
+                output.writeByte((Byte) value);
+            } else if (value instanceof Short) {
+                output.writeByte(SHORT);
+                output.writeShort((Short) value);
+            } else if (value instanceof Character) {
+                output.writeByte(CHAR);
+                output.writeChar((Character) value);
+            } else if (value instanceof Integer) {
+                output.writeByte(INT);
+                output.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                output.writeByte(LONG);
+                output.writeLong((Long) value);
+            } else if (value instanceof Float) {
+                output.writeByte(FLOAT);
+                output.writeFloat((Float) value);
+            } else if (value instanceof Double) {
+                output.writeByte(DOUBLE);
+                output.writeDouble((Double) value);
+            } else if (value instanceof String) {
+                output.writeByte(STRING);
+                writeString(output, (String) value);
+            } else if (value instanceof Enum) {
+                Class<?> type = ((Enum<?>) value).getDeclaringClass();
+                checkLayoutType(type, expected);
+                output.writeByte(ENUM);
+                writeString(output, type.getName());
+                writeString(output, ((Enum<?>) value).name());
+            } else if (value instanceof BigInteger) {
+                output.writeByte(BIG_INTEGER);
+                writeString(output, value.toString());
+            } else if (value instanceof BigDecimal) {
+                output.writeByte(BIG_DECIMAL);
+                writeString(output, value.toString());
+            } else if (value instanceof UUID) {
+                output.writeByte(UUID);
+                output.writeLong(((UUID) value).getMostSignificantBits());
+                output.writeLong(((UUID) value).getLeastSignificantBits());
+            } else if (value.getClass().isArray()) {
+                checkAssignable(value.getClass(), expected);
+                output.writeByte(ARRAY);
+                writeString(output, value.getClass().getComponentType().getName());
+                int length = Array.getLength(value);
+                output.writeInt(length);
+                Type componentType = getComponentType(expected);
+                for (int i = 0; i < length; i++) {
+                    write(output, Array.get(value, i), componentType);
+                }
+            } else if (value instanceof Collection) {
+                Class<?> type = getConstructibleClass(value.getClass(), value instanceof Set ? LinkedHashSet.class : ArrayList.class);
+                checkContainerType(type, Collection.class, expected);
+                output.writeByte(COLLECTION);
+                writeString(output, type.getName());
+                output.writeInt(((Collection<?>) value).size());
+                Type elementType = getTypeArgument(expected, 0);
+                for (Object element : (Collection<?>) value) {
+                    write(output, element, elementType);
+                }
+            } else if (value instanceof Map) {
+                Class<?> type = getConstructibleClass(value.getClass(), LinkedHashMap.class);
+                checkContainerType(type, Map.class, expected);
+                output.writeByte(MAP);
+                writeString(output, type.getName());
+                output.writeInt(((Map<?, ?>) value).size());
+                Type keyType = getTypeArgument(expected, 0);
+                Type valueType = getTypeArgument(expected, 1);
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    write(output, entry.getKey(), keyType);
+                    write(output, entry.getValue(), valueType);
+                }
+            } else if (!value.getClass().getModule().isNamed() && !value.getClass().isRecord()) {
+                checkLayoutType(value.getClass(), expected);
+                List<FieldAccessor> fields = FIELDS.get(value.getClass());
+                output.writeByte(OBJECT);
+                writeString(output, value.getClass().getName());
+                output.writeInt(fields.size());
+                for (FieldAccessor field : fields) {
+                    write(output, field.get(value), field.getField().getGenericType());
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported config value: " + value.getClass());
+            }
+        }
+        
+        private Object read(DataInputStream input, Type expected) throws IOException, ReflectiveOperationException {
+            byte tag = input.readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case BOOLEAN:
+                    return input.readBoolean();
+                case BYTE:
+                    return input.readByte();
+                case SHORT:
+                    return input.readShort();
+                case CHAR:
+                    return input.readChar();
+                case INT:
+                    return input.readInt();
+                case LONG:
+                    return input.readLong();
+                case FLOAT:
+                    return input.readFloat();
+                case DOUBLE:
+                    return input.readDouble();
+                case STRING:
+                    return readString(input);
+                case ENUM: {
+                    Class<?> type = getLayoutType(readString(input));
+                    checkLayoutType(type, expected);
+                    return readEnum(type, readString(input));
+                }
+                case BIG_INTEGER:
+                    return new BigInteger(readString(input));
+                case BIG_DECIMAL:
+                    return new BigDecimal(readString(input));
+                case UUID:
+                    return new UUID(input.readLong(), input.readLong());
+                case ARRAY: {
+                    Class<?> componentType = loadClass(readString(input));
+                    checkAssignable(componentType.arrayType(), expected);
+                    int length = input.readInt();
+                    Object array = Array.newInstance(componentType, length);
+                    Type expectedComponentType = getComponentType(expected);
+                    for (int i = 0; i < length; i++) {
+                        Array.set(array, i, read(input, expectedComponentType));
+                    }
+                    return array;
+                }
+                case COLLECTION: {
+                    Class<?> type = loadClass(readString(input));
+                    checkContainerType(type, Collection.class, expected);
+                    Collection<Object> collection = newInstance(type);
+                    int size = input.readInt();
+                    Type elementType = getTypeArgument(expected, 0);
+                    for (int i = 0; i < size; i++) {
+                        collection.add(read(input, elementType));
+                    }
+                    return collection;
+                }
+                case MAP: {
+                    Class<?> type = loadClass(readString(input));
+                    checkContainerType(type, Map.class, expected);
+                    Map<Object, Object> map = newInstance(type);
+                    int size = input.readInt();
+                    Type keyType = getTypeArgument(expected, 0);
+                    Type valueType = getTypeArgument(expected, 1);
+                    for (int i = 0; i < size; i++) {
+                        map.put(read(input, keyType), read(input, valueType));
+                    }
+                    return map;
+                }
+                case OBJECT: {
+                    Class<?> type = getLayoutType(readString(input));
+                    checkLayoutType(type, expected);
+                    List<FieldAccessor> fields = FIELDS.get(type);
+                    if (input.readInt() != fields.size())
+                        throw new IOException("Field layout of " + type + " has changed");
+                    Object object = Utils.constructUnsafely(type);
+                    for (FieldAccessor field : fields) {
+                        field.set(object, read(input, field.getField().getGenericType()));
+                    }
+                    return object;
+                }
+                default:
+                    throw new IOException("Unknown value tag " + tag);
+            }
+        }
+        
+        private Class<?> getLayoutType(String name) throws IOException {
+            Class<?> type = layoutTypes.get(name);
+            if (type == null)
+                throw new IOException("Type " + name + " is not part of the config layout");
+            return type;
+        }
+        
+        private void checkLayoutType(Class<?> type, Type expected) throws IOException {
+            if (layoutTypes.get(type.getName()) != type)
+                throw new IOException("Type " + type.getName() + " is not part of the config layout");
+            checkAssignable(type, expected);
+        }
+        
+        private void checkContainerType(Class<?> type, Class<?> containerType, Type expected) throws IOException {
+            if (!containerType.isAssignableFrom(type) || !type.getPackageName().equals("java.util") && layoutTypes.get(type.getName()) != type)
+                throw new IOException("Type " + type.getName() + " is not a supported " + containerType.getSimpleName());
+            checkAssignable(type, expected);
+        }
+        
+        private static void checkAssignable(Class<?> type, Type expected) throws IOException {
+            if (!getRawType(expected).isAssignableFrom(type))
+                throw new IOException("Type " + type.getName() + " does not match declared type " + expected.getTypeName());
+        }
+        
+        private static Class<?> getRawType(Type type) {
+            if (type instanceof Class<?> cls) {
+                return cls.isPrimitive() ? MethodType.methodType(cls).wrap().returnType() : cls;
+            } else if (type instanceof ParameterizedType parameterizedType) {
+                return getRawType(parameterizedType.getRawType());
+            } else if (type instanceof GenericArrayType arrayType) {
+                return getRawType(arrayType.getGenericComponentType()).arrayType();
+            } else if (type instanceof TypeVariable<?> typeVariable) {
+                return getRawType(typeVariable.getBounds()[0]);
+            } else if (type instanceof WildcardType wildcardType) {
+                return getRawType(wildcardType.getUpperBounds()[0]);
+            }
+            return Object.class;
+        }
+        
+        private static Type getComponentType(Type type) {
+            if (type instanceof GenericArrayType arrayType) {
+                return arrayType.getGenericComponentType();
+            } else if (type instanceof Class<?> cls && cls.isArray()) {
+                return cls.getComponentType();
+            }
+            return Object.class;
+        }
+        
+        private static Type getTypeArgument(Type type, int index) {
+            if (type instanceof ParameterizedType parameterizedType && parameterizedType.getActualTypeArguments().length > index) {
+                return parameterizedType.getActualTypeArguments()[index];
+            }
+            return Object.class;
+        }
+        
+        private Class<?> loadClass(String name) throws ClassNotFoundException {
+            switch (name) {
+                case "boolean": return boolean.class;
+                case "byte": return byte.class;
+                case "short": return short.class;
+                case "char": return char.class;
+                case "int": return int.class;
+                case "long": return long.class;
+                case "float": return float.class;
+                case "double": return double.class;
+                default: return Class.forName(name, false, classLoader);
+            }
+        }
+        
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static Object readEnum(Class<?> type, String name) {
+            return Enum.valueOf((Class) type, name);
+        }
+        
+        /**
+         * Returns {@code type} if it has a public no-argument constructor, otherwise {@code fallback}.
+         * Immutable collections, for example, are read back as their mutable counterparts, just like text formats do.
+         */
+        /**
+         * Returns the class a collection or map is read back as: its own if it can be created and read safely,
+         * otherwise the fallback, like for the internal collections of parsers.
+         */
+        private Class<?> getConstructibleClass(Class<?> type, Class<?> fallback) {
+            if (!Modifier.isPublic(type.getModifiers()) || Modifier.isAbstract(type.getModifiers()))
+                return fallback;
+            if (!type.getPackageName().equals("java.util") && layoutTypes.get(type.getName()) != type)
+                return fallback;
+            try {
+                type.getConstructor();
+                return type;
+            } catch (NoSuchMethodException e) {
+                return fallback;
+            }
+        }
+        
+        @SuppressWarnings("unchecked")
+        private static <V> V newInstance(Class<?> type) throws ReflectiveOperationException {
+            return (V) type.getConstructor().newInstance();
+        }
+        
+        private static void writeString(DataOutputStream output, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+        
+        private static String readString(DataInputStream input) throws IOException {
+            byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
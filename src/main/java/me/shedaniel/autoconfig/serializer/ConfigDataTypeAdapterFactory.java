@@ -0,0 +1,325 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package me.shedaniel.autoconfig.serializer;
+
+import com.google.gson.*;
+import com.google.gson.annotations.*;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import me.shedaniel.autoconfig.ConfigData;
+import me.shedaniel.autoconfig.util.FieldAccessor;
+import me.shedaniel.autoconfig.util.Utils;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.*;
+
+/**
+ * Creates {@link TypeAdapter}s for {@link ConfigData} classes, which read and write their fields through
+ * cached {@link FieldAccessor}s and read and write primitive fields without boxing.
+ * <p>
+ * The adapters read and write fields like Gson's reflective adapter: they skip static, transient and synthetic fields
+ * as well as fields excluded by the {@link ExclusionStrategy}s given to this factory, honor the {@link Gson}'s field naming
+ * strategy and {@link SerializedName}, and leave primitive fields untouched when reading {@code null}.
+ * Fields declared as a class or type variable are written with the adapter of their runtime type, other fields
+ * with the adapter of their declared type. Classes using {@link JsonAdapter}, {@link Expose}, {@link Since} or
+ * {@link Until} on a field are left to Gson. Use it through
+ * {@link GsonConfigSerializer#GsonConfigSerializer(me.shedaniel.autoconfig.annotation.Config, Class, Gson)},
+ * passing the exclusion strategies of the {@link GsonBuilder} to this factory as well:
+ * <pre>{@code
+ * new GsonBuilder().setPrettyPrinting().registerTypeAdapterFactory(new ConfigDataTypeAdapterFactory()).create()
+ * }</pre>
+ */
+public final class ConfigDataTypeAdapterFactory implements TypeAdapterFactory {
+    private final List<ExclusionStrategy> exclusionStrategies;
+    
+    public ConfigDataTypeAdapterFactory(ExclusionStrategy... exclusionStrategies) {
+        this.exclusionStrategies = List.of(exclusionStrategies);
+    }
+    
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (!ConfigData.class.isAssignableFrom(rawType) || rawType.isInterface() || Modifier.isAbstract(rawType.getModifiers()))
+            return null;
+        if (isExcluded(rawType))
+            return null;
+        
+        List<BoundField> fields = new ArrayList<>();
+        for (Class<?> cls = rawType; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+            if (cls.isAnnotationPresent(Since.class) || cls.isAnnotationPresent(Until.class))
+                return null;
+            for (Field field : cls.getDeclaredFields()) {
+                // These depend on the Gson's version and expose settings, which are not public
+                if (field.isAnnotationPresent(JsonAdapter.class) || field.isAnnotationPresent(Expose.class)
+                    || field.isAnnotationPresent(Since.class) || field.isAnnotationPresent(Until.class))
+                    return null;
+                if (isExcluded(field))
+                    continue;
+                fields.add(createBoundField(gson, field));
+            }
+        }
+        
+        Map<String, BoundField> fieldsByName = new HashMap<>();
+        for (BoundField field : fields) {
+            for (String name : field.names) {
+                if (fieldsByName.put(name, field) != null)
+                    throw new IllegalArgumentException(String.format("%s declares multiple JSON fields named %s", rawType, name));
+            }
+        }
+        return new Adapter<>(rawType, fields, fieldsByName);
+    }
+    
+    private boolean isExcluded(Class<?> type) {
+        // Gson never serializes anonymous and local classes
+        if (type.isAnonymousClass() || type.isLocalClass())
+            return true;
+        for (ExclusionStrategy strategy : exclusionStrategies) {
+            if (strategy.shouldSkipClass(type))
+                return true;
+        }
+        return false;
+    }
+    
+    private boolean isExcluded(Field field) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic() || isExcluded(field.getType()))
+            return true;
+        if (!exclusionStrategies.isEmpty()) {
+            FieldAttributes attributes = new FieldAttributes(field);
+            for (ExclusionStrategy strategy : exclusionStrategies) {
+                if (strategy.shouldSkipField(attributes))
+                    return true;
+            }
+        }
+        return false;
+    }
+    
+    private static BoundField createBoundField(Gson gson, Field field) {
+        SerializedName serializedName = field.getAnnotation(SerializedName.class);
+        List<String> names = new ArrayList<>();
+        if (serializedName != null) {
+            names.add(serializedName.value());
+            Collections.addAll(names, serializedName.alternate());
+        } else {
+            names.add(gson.fieldNamingStrategy().translateName(field));
+        }
+        FieldAccessor accessor = FieldAccessor.of(field);
+        Class<?> type = field.getType();
+        if (type == int.class)
+            return new IntField(names, accessor);
+        if (type == long.class)
+            return new LongField(names, accessor);
+        if (type == double.class)
+            return new DoubleField(names, accessor);
+        if (type == boolean.class)
+            return new BooleanField(names, accessor);
+        return new ObjectField(names, accessor, gson, field.getGenericType());
+    }
+    
+    private static final class Adapter<T> extends TypeAdapter<T> {
+        private final Class<? super T> type;
+        private final List<BoundField> fields;
+        private final Map<String, BoundField> fieldsByName;
+        
+        private Adapter(Class<? super T> type, List<BoundField> fields, Map<String, BoundField> fieldsByName) {
+            this.type = type;
+            this.fields = fields;
+            this.fieldsByName = fieldsByName;
+        }
+        
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            for (BoundField field : fields) {
+                out.name(field.names.get(0));
+                field.write(out, value);
+            }
+            out.endObject();
+        }
+        
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            T instance = (T) Utils.constructUnsafely(type);
+            try {
+                in.beginObject();
+                while (in.hasNext()) {
+                    BoundField field = fieldsByName.get(in.nextName());
+                    if (field == null) {
+                        in.skipValue();
+                    } else {
+                        field.read(in, instance);
+                    }
+                }
+                in.endObject();
+            } catch (IllegalStateException | NumberFormatException e) {
+                throw new JsonSyntaxException(e);
+            }
+            return instance;
+        }
+    }
+    
+    private static abstract class BoundField {
+        protected final List<String> names;
+        protected final FieldAccessor accessor;
+        
+        protected BoundField(List<String> names, FieldAccessor accessor) {
+            this.names = names;
+            this.accessor = accessor;
+        }
+        
+        abstract void write(JsonWriter out, Object instance) throws IOException;
+        
+        abstract void read(JsonReader in, Object instance) throws IOException;
+        
+        /**
+         * Like Gson's reflective adapter, a {@code null} leaves primitive fields at their initial value.
+         */
+        protected static boolean skipNull(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return true;
+            }
+            return false;
+        }
+    }
+    
+    private static final class IntField extends BoundField {
+        private IntField(List<String> names, FieldAccessor accessor) {
+            super(names, accessor);
+        }
+        
+        @Override
+        void write(JsonWriter out, Object instance) throws IOException {
+            out.value(accessor.getInt(instance));
+        }
+        
+        @Override
+        void read(JsonReader in, Object instance) throws IOException {
+            if (!skipNull(in))
+                accessor.setInt(instance, in.nextInt());
+        }
+    }
+    
+    private static final class LongField extends BoundField {
+        private LongField(List<String> names, FieldAccessor accessor) {
+            super(names, accessor);
+        }
+        
+        @Override
+        void write(JsonWriter out, Object instance) throws IOException {
+            out.value(accessor.getLong(instance));
+        }
+        
+        @Override
+        void read(JsonReader in, Object instance) throws IOException {
+            if (!skipNull(in))
+                accessor.setLong(instance, in.nextLong());
+        }
+    }
+    
+    private static final class DoubleField extends BoundField {
+        private DoubleField(List<String> names, FieldAccessor accessor) {
+            super(names, accessor);
+        }
+        
+        @Override
+        void write(JsonWriter out, Object instance) throws IOException {
+            out.value(accessor.getDouble(instance));
+        }
+        
+        @Override
+        void read(JsonReader in, Object instance) throws IOException {
+            if (!skipNull(in))
+                accessor.setDouble(instance, in.nextDouble());
+        }
+    }
+    
+    private static final class BooleanField extends BoundField {
+        private BooleanField(List<String> names, FieldAccessor accessor) {
+            super(names, accessor);
+        }
+        
+        @Override
+        void write(JsonWriter out, Object instance) throws IOException {
+            out.value(accessor.getBoolean(instance));
+        }
+        
+        @Override
+        void read(JsonReader in, Object instance) throws IOException {
+            if (skipNull(in))
+                return;
+            // Gson's boolean adapter also accepts quoted booleans
+            if (in.peek() == JsonToken.STRING) {
+                accessor.setBoolean(instance, Boolean.parseBoolean(in.nextString()));
+            } else {
+                accessor.setBoolean(instance, in.nextBoolean());
+            }
+        }
+    }
+    
+    private static final class ObjectField extends BoundField {
+        private final Gson gson;
+        private final TypeAdapter<Object> adapter;
+        private final boolean primitive;
+        private final boolean runtimeTyped;
+        
+        @SuppressWarnings("unchecked")
+        private ObjectField(List<String> names, FieldAccessor accessor, Gson gson, Type type) {
+            super(names, accessor);
+            this.gson = gson;
+            this.adapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(type));
+            this.primitive = accessor.getField().getType().isPrimitive();
+            // Like Gson, only plain class and type variable declarations are written by their runtime type
+            this.runtimeTyped = !primitive && (type instanceof Class<?> || type instanceof TypeVariable<?>);
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        void write(JsonWriter out, Object instance) throws IOException {
+            Object value = accessor.get(instance);
+            if (runtimeTyped && value != null && value.getClass() != accessor.getField().getType()) {
+                ((TypeAdapter<Object>) gson.getAdapter(value.getClass())).write(out, value);
+            } else {
+                adapter.write(out, value);
+            }
+        }
+        
+        @Override
+        void read(JsonReader in, Object instance) throws IOException {
+            Object value = adapter.read(in);
+            if (value != null || !primitive)
+                accessor.set(instance, value);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package me.shedaniel.autoconfig.serializer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes serialized configs to file, skipping the write if the file already has the same contents.
+ */
+public final class ConfigFileWriter {
+    private static final AtomicLong PERFORMED_WRITES = new AtomicLong();
+    private static final AtomicLong SKIPPED_WRITES = new AtomicLong();
+    
+    private ConfigFileWriter() {
+    }
+    
+    /**
+     * Writes {@code contents} to {@code path}, unless the file already holds exactly these bytes.
+     * <br>
+     * The file is replaced like by {@link #write(Path, ContentWriter)}.
+     *
+     * @return {@code true} if the file was written, {@code false} if the write was skipped
+     */
+    public static boolean write(Path path, byte[] contents) throws IOException {
+        return write(path, (OutputStream output) -> output.write(contents));
+    }
+    
+    /**
+     * Streams the text written by {@code contents} to {@code path} as UTF-8, unless the file already holds exactly this text.
+     * <br>
+     * The output is compared with the file while it is produced, and only once they differ is it written
+     * to a temporary file, which then replaces the file. The text is never held in memory as a whole.
+     * If {@code path} is a symbolic link, the file it points to is replaced, and the replaced file's
+     * permissions are kept.
+     *
+     * @return {@code true} if the file was written, {@code false} if the write was skipped
+     */
+    public static boolean write(Path path, ContentWriter contents) throws IOException {
+        return write(path, (OutputStream output) -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            contents.write(writer);
+            writer.flush();
+        });
+    }
+    
+    private static boolean write(Path path, StreamWriter contents) throws IOException {
+        Files.createDirectories(path.getParent());
+        boolean changed;
+        try (ComparingOutputStream output = new ComparingOutputStream(path)) {
+            contents.write(output);
+            changed = output.finish();
+        }
+        if (!changed) {
+            SKIPPED_WRITES.incrementAndGet();
+            return false;
+        }
+        PERFORMED_WRITES.incrementAndGet();
+        return true;
+    }
+    
+    @FunctionalInterface
+    private interface StreamWriter {
+        void write(OutputStream output) throws IOException;
+    }
+    
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(Writer writer) throws IOException;
+    }
+    
+    /**
+     * Compares everything written to it with the existing file, and starts writing a temporary file
+     * from the first difference on.
+     */
+    private static final class ComparingOutputStream extends OutputStream {
+        private final Path path;
+        private final byte[] buffer = new byte[8192];
+        private InputStream existing;
+        private long matched;
+        private Path tempPath;
+        private OutputStream output;
+        
+        private ComparingOutputStream(Path path) throws IOException {
+            // Replace the target of a symbolic link instead of the link itself
+            this.path = Files.exists(path) ? path.toRealPath() : path;
+            this.existing = Files.isRegularFile(this.path) ? Files.newInputStream(this.path) : null;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+        
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (output == null) {
+                int compared = 0;
+                while (compared < length) {
+                    int read = existing == null ? -1 : existing.read(buffer, 0, Math.min(buffer.length, length - compared));
+                    if (read < 0) {
+                        break;
+                    }
+                    int mismatch = Arrays.mismatch(buffer, 0, read, bytes, offset + compared, offset + compared + read);
+                    if (mismatch >= 0) {
+                        compared += mismatch;
+                        break;
+                    }
+                    compared += read;
+                }
+                matched += compared;
+                if (compared == length) {
+                    return;
+                }
+                diverge();
+                offset += compared;
+                length -= compared;
+            }
+            output.write(bytes, offset, length);
+        }
+        
+        /**
+         * Starts writing the temporary file, beginning with the bytes that matched the existing file.
+         */
+        private void diverge() throws IOException {
+            if (existing != null) {
+                existing.close();
+                existing = null;
+            }
+            createTempFile();
+            copyAttributes();
+            if (matched > 0) {
+                try (InputStream prefix = Files.newInputStream(path)) {
+                    long remaining = matched;
+                    while (remaining > 0) {
+                        int read = prefix.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                        if (read < 0)
+                            throw new EOFException("Config file changed while being written: " + path);
+                        output.write(buffer, 0, read);
+                        remaining -= read;
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Creates the temporary file next to the file and opens it. Unlike {@link Files#createTempFile},
+         * this does not restrict the permissions of the file, so a new config file gets the default permissions.
+         */
+        private void createTempFile() throws IOException {
+            while (true) {
+                tempPath = path.resolveSibling(path.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+                try {
+                    output = new BufferedOutputStream(Files.newOutputStream(tempPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+                    return;
+                } catch (FileAlreadyExistsException ignored) {
+                }
+            }
+        }
+        
+        /**
+         * Copies the permissions and group of the replaced file to the temporary file.
+         */
+        private void copyAttributes() throws IOException {
+            if (!Files.isRegularFile(path))
+                return;
+            PosixFileAttributeView view = Files.getFileAttributeView(tempPath, PosixFileAttributeView.class);
+            if (view == null)
+                return;
+            PosixFileAttributes attributes = Files.readAttributes(path, PosixFileAttributes.class);
+            view.setPermissions(attributes.permissions());
+            try {
+                view.setGroup(attributes.group());
+            } catch (IOException ignored) {
+                // Only the owner's groups can be set, the file keeps the default group otherwise
+            }
+        }
+        
+        /**
+         * Replaces the file with the temporary file if the output differs from it.
+         *
+         * @return whether the file was replaced
+         */
+        private boolean finish() throws IOException {
+            if (output == null) {
+                if (existing != null && existing.read() < 0) {
+                    return false;
+                }
+                diverge();
+            }
+            output.close();
+            output = null;
+            try {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tempPath = null;
+            return true;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            try {
+                if (existing != null)
+                    existing.close();
+                if (output != null)
+                    output.close();
+            } finally {
+                if (tempPath != null)
+                    Files.deleteIfExists(tempPath);
+            }
+        }
+    }
+    
+    /**
+     * Returns the number of config files written since startup.
+     */
+    public static long getPerformedWrites() {
+        return PERFORMED_WRITES.get();
+    }
+    
+    /**
+     * Returns the number of config file writes skipped since startup, because the file was already up to date.
+     */
+    public static long getSkippedWrites() {
+        return SKIPPED_WRITES.get();
+    }
+}
@@ -21,6 +21,9 @@ package me.shedaniel.autoconfig.serializer;
 
 import me.shedaniel.autoconfig.ConfigData;
 import me.shedaniel.autoconfig.annotation.Config;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
 
 public interface ConfigSerializer<T extends ConfigData> {
     
@@ -30,6 +33,14 @@ public interface ConfigSerializer<T extends ConfigData> {
     
     T createDefault();
     
+    /**
+     * Returns the file this serializer reads from and writes to, or {@code null} if it does not use a single file.
+     */
+    @Nullable
+    default Path getConfigPath() {
+        return null;
+    }
+    
     @FunctionalInterface
     interface Factory<T extends ConfigData> {
         ConfigSerializer<T> create(Config definition, Class<T> configClass);
@@ -39,6 +50,10 @@ public interface ConfigSerializer<T extends ConfigData> {
         public SerializationException(Throwable cause) {
             super(cause);
         }
+        
+        public SerializationException(String message, Throwable cause) {
+            super(message, cause);
+        }
     }
 }
 
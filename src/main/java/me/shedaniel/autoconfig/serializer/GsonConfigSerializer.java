@@ -27,7 +27,6 @@ import me.shedaniel.autoconfig.annotation.Config;
 import me.shedaniel.autoconfig.util.Utils;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -53,7 +52,8 @@ public class GsonConfigSerializer<T extends ConfigData> implements ConfigSeriali
         this(definition, configClass, new GsonBuilder().setPrettyPrinting().create());
     }
     
-    private Path getConfigPath() {
+    @Override
+    public Path getConfigPath() {
         return Utils.getConfigFolder().resolve(definition.name() + ".json");
     }
     
@@ -61,10 +61,7 @@ public class GsonConfigSerializer<T extends ConfigData> implements ConfigSeriali
     public void serialize(T config) throws SerializationException {
         Path configPath = getConfigPath();
         try {
-            Files.createDirectories(configPath.getParent());
-            BufferedWriter writer = Files.newBufferedWriter(configPath);
-            gson.toJson(config, writer);
-            writer.close();
+            ConfigFileWriter.write(configPath, writer -> gson.toJson(config, writer));
         } catch (IOException e) {
             throw new SerializationException(e);
         }
@@ -20,12 +20,15 @@
 package me.shedaniel.autoconfig.serializer;
 
 import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonGrammar;
 import me.shedaniel.autoconfig.ConfigData;
 import me.shedaniel.autoconfig.annotation.Config;
 import me.shedaniel.autoconfig.util.Utils;
 
-import java.io.BufferedWriter;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -35,6 +38,11 @@ import java.nio.file.Path;
 @SuppressWarnings("unused")
 public class JanksonConfigSerializer<T extends ConfigData> implements ConfigSerializer<T> {
     
+    /**
+     * The same grammar as {@code toJson(true, true)}.
+     */
+    private static final JsonGrammar GRAMMAR = JsonGrammar.builder().withComments(true).printWhitespace(true).build();
+    
     private Config definition;
     private Class<T> configClass;
     private Jankson jankson;
@@ -49,7 +57,8 @@ public class JanksonConfigSerializer<T extends ConfigData> implements ConfigSeri
         this(definition, configClass, Jankson.builder().build());
     }
     
-    private Path getConfigPath() {
+    @Override
+    public Path getConfigPath() {
         return Utils.getConfigFolder().resolve(definition.name() + ".json5");
     }
     
@@ -57,10 +66,8 @@ public class JanksonConfigSerializer<T extends ConfigData> implements ConfigSeri
     public void serialize(T config) throws SerializationException {
         Path configPath = getConfigPath();
         try {
-            Files.createDirectories(configPath.getParent());
-            BufferedWriter writer = Files.newBufferedWriter(configPath);
-            writer.write(jankson.toJson(config).toJson(true, true));
-            writer.close();
+            JsonElement json = jankson.toJson(config);
+            ConfigFileWriter.write(configPath, writer -> json.toJson(writer, GRAMMAR, 0));
         } catch (IOException e) {
             throw new SerializationException(e);
         }
@@ -71,7 +78,9 @@ public class JanksonConfigSerializer<T extends ConfigData> implements ConfigSeri
         Path configPath = getConfigPath();
         if (Files.exists(configPath)) {
             try {
-                return jankson.fromJson(jankson.load(getConfigPath().toFile()), configClass);
+                try (InputStream stream = new BufferedInputStream(Files.newInputStream(configPath))) {
+                    return jankson.fromJson(jankson.load(stream), configClass);
+                }
             } catch (Throwable e) {
                 throw new SerializationException(e);
             }
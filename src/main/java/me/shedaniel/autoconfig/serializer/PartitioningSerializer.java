@@ -21,13 +21,21 @@ package me.shedaniel.autoconfig.serializer;
 
 import me.shedaniel.autoconfig.ConfigData;
 import me.shedaniel.autoconfig.annotation.Config;
+import me.shedaniel.autoconfig.util.ConfigCopier;
+import me.shedaniel.autoconfig.util.FieldAccessor;
 import me.shedaniel.autoconfig.util.Utils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -36,14 +44,25 @@ import java.util.stream.Collectors;
  * corresponding to a single config file.
  * The top level config must inherit from GlobalData.
  * Each field of the top level config must be of a type inheriting from ConfigData.
+ * When created through {@link #wrapParallel(Factory)}, the partitions are read and written concurrently.
+ * Only partitions that changed since they were last written are serialized again.
  */
 public final class PartitioningSerializer<T extends PartitioningSerializer.GlobalData, M extends ConfigData> implements ConfigSerializer<T> {
     
+    private static final Logger LOGGER = LogManager.getLogger();
+    
     private Class<T> configClass;
     private Map<Field, ConfigSerializer<M>> serializers;
+    private final boolean parallel;
+    /**
+     * Copies of the modules as they were last written, used to skip unchanged partitions.
+     */
+    private final Map<Field, Object> writtenModules = new ConcurrentHashMap<>();
+    private volatile List<String> lastWrittenPartitions = List.of();
     
-    private PartitioningSerializer(Config definition, Class<T> configClass, Factory<M> factory) {
+    private PartitioningSerializer(Config definition, Class<T> configClass, Factory<M> factory, boolean parallel) {
         this.configClass = configClass;
+        this.parallel = parallel;
         
         //noinspection unchecked
         serializers = getModuleFields(configClass).stream()
@@ -66,7 +85,15 @@ public final class PartitioningSerializer<T extends PartitioningSerializer.Globa
     
     public static <T extends GlobalData, M extends ConfigData>
     Factory<T> wrap(Factory<M> inner) {
-        return (definition, configClass) -> new PartitioningSerializer<>(definition, configClass, inner);
+        return (definition, configClass) -> new PartitioningSerializer<>(definition, configClass, inner, false);
+    }
+    
+    /**
+     * Like {@link #wrap(Factory)}, but reads and writes the partitions concurrently on a bounded pool.
+     */
+    public static <T extends GlobalData, M extends ConfigData>
+    Factory<T> wrapParallel(Factory<M> inner) {
+        return (definition, configClass) -> new PartitioningSerializer<>(definition, configClass, inner, true);
     }
     
     private static Config createDefinition(String name) {
@@ -107,16 +134,80 @@ public final class PartitioningSerializer<T extends PartitioningSerializer.Globa
     
     @Override
     public void serialize(T config) throws SerializationException {
-        for (Map.Entry<Field, ConfigSerializer<M>> entry : serializers.entrySet()) {
-            entry.getValue().serialize(Utils.getUnsafely(entry.getKey(), config));
+        List<Field> dirtyFields = new ArrayList<>();
+        List<M> dirtyModules = new ArrayList<>();
+        for (Field field : serializers.keySet()) {
+            M module = FieldAccessor.of(field).get(config);
+            Object writtenModule = writtenModules.get(field);
+            if (writtenModule == null || !ConfigCopier.contentEquals(module, writtenModule)) {
+                dirtyFields.add(field);
+                dirtyModules.add(module);
+            }
+        }
+        
+        if (isParallel(dirtyFields.size())) {
+            List<Callable<Object>> tasks = new ArrayList<>(dirtyFields.size());
+            for (int i = 0; i < dirtyFields.size(); i++) {
+                ConfigSerializer<M> serializer = serializers.get(dirtyFields.get(i));
+                M module = dirtyModules.get(i);
+                tasks.add(() -> {
+                    serializer.serialize(module);
+                    return null;
+                });
+            }
+            invokeAll(dirtyFields, tasks, "serialize");
+            for (int i = 0; i < dirtyFields.size(); i++) {
+                markWritten(dirtyFields.get(i), dirtyModules.get(i));
+            }
+        } else {
+            for (int i = 0; i < dirtyFields.size(); i++) {
+                serializers.get(dirtyFields.get(i)).serialize(dirtyModules.get(i));
+                markWritten(dirtyFields.get(i), dirtyModules.get(i));
+            }
         }
+        
+        List<String> written = new ArrayList<>(dirtyFields.size());
+        for (Field field : dirtyFields) {
+            written.add(field.getName());
+        }
+        lastWrittenPartitions = Collections.unmodifiableList(written);
+        LOGGER.debug("Wrote partitions {} of config '{}'", written, configClass);
+    }
+    
+    private void markWritten(Field field, M module) {
+        if (module == null) {
+            writtenModules.remove(field);
+        } else {
+            writtenModules.put(field, ConfigCopier.copy(module));
+        }
+    }
+    
+    /**
+     * Returns the names of the partition fields written by the last {@link #serialize(GlobalData)} call.
+     */
+    public List<String> getLastWrittenPartitions() {
+        return lastWrittenPartitions;
     }
     
     @Override
     public T deserialize() throws SerializationException {
+        // The files may have been edited since they were last written, rewrite everything on the next save
+        writtenModules.clear();
         T ret = createDefault();
+        if (isParallel(serializers.size())) {
+            List<Callable<M>> tasks = new ArrayList<>(serializers.size());
+            for (ConfigSerializer<M> serializer : serializers.values()) {
+                tasks.add(serializer::deserialize);
+            }
+            List<M> modules = invokeAll(new ArrayList<>(serializers.keySet()), tasks, "deserialize");
+            int i = 0;
+            for (Field field : serializers.keySet()) {
+                FieldAccessor.of(field).set(ret, modules.get(i++));
+            }
+            return ret;
+        }
         for (Map.Entry<Field, ConfigSerializer<M>> entry : serializers.entrySet()) {
-            Utils.setUnsafely(entry.getKey(), ret, entry.getValue().deserialize());
+            FieldAccessor.of(entry.getKey()).set(ret, entry.getValue().deserialize());
         }
         return ret;
     }
@@ -126,6 +217,62 @@ public final class PartitioningSerializer<T extends PartitioningSerializer.Globa
         return Utils.constructUnsafely(configClass);
     }
     
+    private boolean isParallel(int partitions) {
+        // Partitions of partitions run on the calling pool thread, waiting on the pool from it could deadlock
+        return parallel && partitions > 1 && !(Thread.currentThread() instanceof IoPool.IoThread);
+    }
+    
+    private <V> List<V> invokeAll(List<Field> fields, List<Callable<V>> tasks, String action) throws SerializationException {
+        List<Future<V>> futures = new ArrayList<>(tasks.size());
+        for (Callable<V> task : tasks) {
+            futures.add(IoPool.EXECUTOR.submit(task));
+        }
+        List<V> results = new ArrayList<>(tasks.size());
+        SerializationException failure = null;
+        try {
+            // Wait for every task, so no partition is still being written when this returns
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    SerializationException exception = new SerializationException(String.format("Failed to %s partition '%s'", action, fields.get(i).getName()), e.getCause());
+                    if (failure == null) {
+                        failure = exception;
+                    } else {
+                        failure.addSuppressed(exception);
+                    }
+                    results.add(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Only skip tasks which have not started, interrupting a write would truncate its file
+            for (Future<V> future : futures) {
+                future.cancel(false);
+            }
+            Thread.currentThread().interrupt();
+            throw new SerializationException(e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+    
+    private static class IoPool {
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())),
+                IoThread::new
+        );
+        
+        private static class IoThread extends Thread {
+            private IoThread(Runnable runnable) {
+                super(runnable, "Cloth Config Partition I/O #" + THREAD_COUNT.incrementAndGet());
+                setDaemon(true);
+            }
+        }
+    }
+    
     public static abstract class GlobalData implements ConfigData {
         
         public GlobalData() {
@@ -139,7 +286,7 @@ public final class PartitioningSerializer<T extends PartitioningSerializer.Globa
         @Override
         final public void validatePostLoad() throws ValidationException {
             for (Field moduleField : getModuleFields(getClass())) {
-                ((ConfigData) Utils.getUnsafely(moduleField, this)).validatePostLoad();
+                ((ConfigData) FieldAccessor.of(moduleField).get(this)).validatePostLoad();
             }
         }
     }
@@ -50,7 +50,8 @@ public class Toml4jConfigSerializer<T extends ConfigData> implements ConfigSeria
         this(definition, configClass, new TomlWriter());
     }
     
-    private Path getConfigPath() {
+    @Override
+    public Path getConfigPath() {
         return Utils.getConfigFolder().resolve(definition.name() + ".toml");
     }
     
@@ -58,8 +59,7 @@ public class Toml4jConfigSerializer<T extends ConfigData> implements ConfigSeria
     public void serialize(T config) throws SerializationException {
         Path configPath = getConfigPath();
         try {
-            Files.createDirectories(configPath.getParent());
-            tomlWriter.write(config, configPath.toFile());
+            ConfigFileWriter.write(configPath, writer -> tomlWriter.write(config, writer));
         } catch (IOException e) {
             throw new SerializationException(e);
         }
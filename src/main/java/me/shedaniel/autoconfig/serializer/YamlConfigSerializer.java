@@ -24,9 +24,9 @@ import me.shedaniel.autoconfig.annotation.Config;
 import me.shedaniel.autoconfig.util.Utils;
 import org.yaml.snakeyaml.Yaml;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -47,7 +47,8 @@ public class YamlConfigSerializer<T extends ConfigData> implements ConfigSeriali
         this(definition, configClass, new Yaml());
     }
     
-    private Path getConfigPath() {
+    @Override
+    public Path getConfigPath() {
         return Utils.getConfigFolder().resolve(definition.name() + ".yaml");
     }
     
@@ -55,8 +56,7 @@ public class YamlConfigSerializer<T extends ConfigData> implements ConfigSeriali
     public void serialize(T config) throws SerializationException {
         Path configPath = getConfigPath();
         try {
-            Files.createDirectories(configPath.getParent());
-            Files.write(configPath, yaml.dump(config).getBytes(StandardCharsets.UTF_8));
+            ConfigFileWriter.write(configPath, writer -> yaml.dump(config, writer));
         } catch (IOException e) {
             throw new SerializationException(e);
         }
@@ -66,7 +66,7 @@ public class YamlConfigSerializer<T extends ConfigData> implements ConfigSeriali
     public T deserialize() throws SerializationException {
         Path configPath = getConfigPath();
         if (Files.exists(configPath)) {
-            try (InputStream stream = Files.newInputStream(configPath)) {
+            try (InputStream stream = new BufferedInputStream(Files.newInputStream(configPath))) {
                 return yaml.load(stream);
             } catch (IOException e) {
                 throw new SerializationException(e);
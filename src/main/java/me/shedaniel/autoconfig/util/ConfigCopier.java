@@ -0,0 +1,396 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package me.shedaniel.autoconfig.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Creates deep copies of config objects, so that they can be handed to another thread
+ * while the original keeps being edited, and compares config objects by their contents.
+ * <p>
+ * Immutable values are shared, arrays, collections and maps are copied element by element,
+ * and any other object is copied field by field. Such objects need a no-argument constructor,
+ * though it is not run for the copy, as every field is overwritten anyway.
+ * Collections and maps keep their type, including enum sets and maps and the comparators of sorted ones,
+ * where possible. Cloneable objects from named modules are cloned. Other objects without a no-argument
+ * constructor, or from named modules, are shared, see {@link #copyExactly(Object)}.
+ * <p>
+ * Fields and constructors are resolved once per class, so copies only cost method handle invocations.
+ */
+@ApiStatus.Internal
+public final class ConfigCopier {
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(
+            Boolean.class, Byte.class, Short.class, Character.class, Integer.class, Long.class, Float.class, Double.class,
+            String.class, BigInteger.class, BigDecimal.class, UUID.class, Class.class
+    );
+    private static final MethodHandle ALLOCATE_INSTANCE = findAllocateInstance();
+    private static final ClassValue<Optional<MethodHandle>> CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            if (type.isInterface() || Modifier.isAbstract(type.getModifiers()))
+                return Optional.empty();
+            try {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return Optional.of(MethodHandles.lookup().unreflectConstructor(constructor)
+                        .asType(MethodType.methodType(Object.class)));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return Optional.empty();
+            }
+        }
+    };
+    private static final ClassValue<List<FieldAccessor>> FIELDS = new ClassValue<>() {
+        @Override
+        protected List<FieldAccessor> computeValue(Class<?> type) {
+            List<FieldAccessor> fields = new ArrayList<>();
+            for (Class<?> cls = type; cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+                for (Field field : cls.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                        fields.add(FieldAccessor.of(field));
+                    }
+                }
+            }
+            return fields;
+        }
+    };
+    
+    private static final ClassValue<Optional<MethodHandle>> COMPARATOR_CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            try {
+                return Optional.of(MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class, Comparator.class))
+                        .asType(MethodType.methodType(Object.class, Comparator.class)));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return Optional.empty();
+            }
+        }
+    };
+    private static final ClassValue<Optional<MethodHandle>> CLONE_METHODS = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            if (!Cloneable.class.isAssignableFrom(type))
+                return Optional.empty();
+            try {
+                return Optional.of(MethodHandles.publicLookup().findVirtual(type, "clone", MethodType.methodType(Object.class))
+                        .asType(MethodType.methodType(Object.class, Object.class)));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return Optional.empty();
+            }
+        }
+    };
+    
+    private ConfigCopier() {
+    }
+    
+    public static <T> T copy(T value) {
+        return copy(value, new Context());
+    }
+    
+    /**
+     * Like {@link #copy(Object)}, but returns {@code null} instead of a copy which shares a mutable value
+     * with the original, or which could only be copied into a collection or map of another type.
+     */
+    @Nullable
+    public static <T> T copyExactly(T value) {
+        Context context = new Context();
+        T copy = copy(value, context);
+        return context.exact ? copy : null;
+    }
+    
+    private static final class Context {
+        private final Map<Object, Object> copies = new IdentityHashMap<>();
+        private boolean exact = true;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(T value, Context context) {
+        if (value == null || isImmutable(value.getClass()))
+            return value;
+        Map<Object, Object> copies = context.copies;
+        Object existing = copies.get(value);
+        if (existing != null)
+            return (T) existing;
+        
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(value);
+            if (type.getComponentType().isPrimitive()) {
+                Object copy = Array.newInstance(type.getComponentType(), length);
+                System.arraycopy(value, 0, copy, 0, length);
+                copies.put(value, copy);
+                return (T) copy;
+            }
+            Object[] copy = (Object[]) Array.newInstance(type.getComponentType(), length);
+            copies.put(value, copy);
+            for (int i = 0; i < length; i++) {
+                copy[i] = copy(((Object[]) value)[i], context);
+            }
+            return (T) copy;
+        }
+        if (value instanceof Collection) {
+            Collection<Object> copy = newEmptyCopy(value);
+            if (copy == null) {
+                // Like text formats, read back immutable and other non-constructible collections as their mutable counterparts
+                copy = value instanceof Set ? new LinkedHashSet<>() : new ArrayList<>();
+            }
+            copies.put(value, copy);
+            for (Object element : (Collection<?>) value) {
+                copy.add(copy(element, context));
+            }
+            return (T) copy;
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> copy = newEmptyCopy(value);
+            if (copy == null)
+                copy = new LinkedHashMap<>();
+            copies.put(value, copy);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(copy(entry.getKey(), context), copy(entry.getValue(), context));
+            }
+            return (T) copy;
+        }
+        
+        // Classes of named modules, like the JDK's, can not be copied reflectively, but may be cloneable
+        Object copy = type.getModule().isNamed() ? cloneOrNull(value) : allocate(type);
+        if (copy == null) {
+            context.exact = false;
+            return value;
+        }
+        copies.put(value, copy);
+        if (type.getModule().isNamed())
+            return (T) copy;
+        for (FieldAccessor field : FIELDS.get(type)) {
+            Object fieldValue = field.get(value);
+            Object fieldCopy = copy(fieldValue, context);
+            Class<?> fieldType = field.getField().getType();
+            if (fieldCopy != null && !fieldType.isPrimitive() && !fieldType.isInstance(fieldCopy)) {
+                // The field needs the exact type, which could not be copied
+                context.exact = false;
+                fieldCopy = fieldValue;
+            }
+            field.set(copy, fieldCopy);
+        }
+        return (T) copy;
+    }
+    
+    /**
+     * Creates an empty collection or map of the same type as {@code value}, keeping its comparator or enum type.
+     *
+     * @return the empty copy, or {@code null} if the type can not be created
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Nullable
+    private static <T> T newEmptyCopy(Object value) {
+        Class<?> type = value.getClass();
+        if (value instanceof EnumSet) {
+            EnumSet<?> copy = EnumSet.copyOf((EnumSet) value);
+            copy.clear();
+            return (T) copy;
+        }
+        if (value instanceof EnumMap) {
+            EnumMap<?, ?> copy = new EnumMap<>((EnumMap) value);
+            copy.clear();
+            return (T) copy;
+        }
+        Comparator<?> comparator = value instanceof SortedSet ? ((SortedSet<?>) value).comparator()
+                : value instanceof SortedMap ? ((SortedMap<?, ?>) value).comparator()
+                : value instanceof PriorityQueue ? ((PriorityQueue<?>) value).comparator() : null;
+        if (comparator != null) {
+            MethodHandle constructor = COMPARATOR_CONSTRUCTORS.get(type).orElse(null);
+            if (constructor == null)
+                return (T) clearedCloneOrNull(value);
+            try {
+                return (T) (Object) constructor.invokeExact((Comparator) comparator);
+            } catch (Throwable throwable) {
+                return null;
+            }
+        }
+        T copy = newInstance(type);
+        return copy != null ? copy : (T) clearedCloneOrNull(value);
+    }
+    
+    @Nullable
+    private static Object clearedCloneOrNull(Object value) {
+        Object copy = cloneOrNull(value);
+        try {
+            if (copy instanceof Collection) {
+                ((Collection<?>) copy).clear();
+            } else if (copy instanceof Map) {
+                ((Map<?, ?>) copy).clear();
+            }
+            return copy;
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+    
+    @Nullable
+    private static Object cloneOrNull(Object value) {
+        MethodHandle clone = CLONE_METHODS.get(value.getClass()).orElse(null);
+        if (clone == null)
+            return null;
+        try {
+            return (Object) clone.invokeExact(value);
+        } catch (Throwable throwable) {
+            return null;
+        }
+    }
+    
+    /**
+     * Compares two config objects by their contents, descending into the same values {@link #copy(Object)} copies.
+     * Collections and maps are compared by their contents, regardless of their implementations.
+     * <p>
+     * Mutable values that {@link #copy(Object)} has to share are never considered equal to themselves,
+     * since a change to them can not be told apart by comparing against an earlier copy.
+     */
+    public static boolean contentEquals(Object first, Object second) {
+        return contentEquals(first, second, new IdentityHashMap<>());
+    }
+    
+    private static boolean contentEquals(Object first, Object second, Map<Object, Object> compared) {
+        if (first == null || second == null)
+            return first == second;
+        if (first == second)
+            return isImmutable(first.getClass());
+        if (compared.get(first) == second)
+            return true;
+        
+        Class<?> type = first.getClass();
+        if (first instanceof List && second instanceof List) {
+            compared.put(first, second);
+            return iterablesEqual((List<?>) first, (List<?>) second, compared);
+        }
+        if (first instanceof Set && second instanceof Set) {
+            compared.put(first, second);
+            return iterablesEqual((Set<?>) first, (Set<?>) second, compared);
+        }
+        if (first instanceof Map && second instanceof Map) {
+            Map<?, ?> firstMap = (Map<?, ?>) first;
+            Map<?, ?> secondMap = (Map<?, ?>) second;
+            if (firstMap.size() != secondMap.size())
+                return false;
+            compared.put(first, second);
+            for (Map.Entry<?, ?> entry : firstMap.entrySet()) {
+                Object value = secondMap.get(entry.getKey());
+                if ((value == null && !secondMap.containsKey(entry.getKey())) || !contentEquals(entry.getValue(), value, compared))
+                    return false;
+            }
+            return true;
+        }
+        if (type != second.getClass())
+            return false;
+        if (isImmutable(type) || type.getModule().isNamed())
+            return first.equals(second);
+        if (type.isArray()) {
+            if (type.getComponentType().isPrimitive())
+                return Objects.deepEquals(first, second);
+            Object[] firstArray = (Object[]) first;
+            Object[] secondArray = (Object[]) second;
+            if (firstArray.length != secondArray.length)
+                return false;
+            compared.put(first, second);
+            for (int i = 0; i < firstArray.length; i++) {
+                if (!contentEquals(firstArray[i], secondArray[i], compared))
+                    return false;
+            }
+            return true;
+        }
+        compared.put(first, second);
+        for (FieldAccessor field : FIELDS.get(type)) {
+            if (!contentEquals(field.get(first), field.get(second), compared))
+                return false;
+        }
+        return true;
+    }
+    
+    private static boolean iterablesEqual(Collection<?> first, Collection<?> second, Map<Object, Object> compared) {
+        if (first.size() != second.size())
+            return false;
+        Iterator<?> secondIterator = second.iterator();
+        for (Object element : first) {
+            if (!contentEquals(element, secondIterator.next(), compared))
+                return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Returns the accessors of the instance fields of {@code type} and its superclasses.
+     */
+    static List<FieldAccessor> getFields(Class<?> type) {
+        return FIELDS.get(type);
+    }
+    
+    static boolean isImmutable(Class<?> type) {
+        return type.isEnum() || type.isRecord() || IMMUTABLE_TYPES.contains(type)
+               || (type.getSuperclass() != null && type.getSuperclass().isEnum());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T newInstance(Class<?> type) {
+        MethodHandle constructor = CONSTRUCTORS.get(type).orElse(null);
+        if (constructor == null)
+            return null;
+        try {
+            return (T) (Object) constructor.invokeExact();
+        } catch (Throwable throwable) {
+            return null;
+        }
+    }
+    
+    /**
+     * Creates an instance of a class with a no-argument constructor, without running the constructor and field initializers if possible.
+     */
+    private static Object allocate(Class<?> type) {
+        if (CONSTRUCTORS.get(type).isEmpty())
+            return null;
+        if (ALLOCATE_INSTANCE != null) {
+            try {
+                return (Object) ALLOCATE_INSTANCE.invokeExact(type);
+            } catch (Throwable ignored) {
+            }
+        }
+        return newInstance(type);
+    }
+    
+    private static MethodHandle findAllocateInstance() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "allocateInstance", MethodType.methodType(Object.class, Class.class))
+                    .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package me.shedaniel.autoconfig.util;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Computes the paths that differ between two versions of a config.
+ * <p>
+ * A path is made of field names separated by {@code .}, with list and array indices and map keys
+ * in brackets, for example {@code general.blocks[3]}. Nested objects, lists, arrays and maps are descended
+ * into as long as their shape matches, otherwise the path of the whole value is reported.
+ * Transient fields are not part of the config and are ignored, and cyclic references are only compared once.
+ */
+@ApiStatus.Experimental
+public final class ConfigDiff {
+    private ConfigDiff() {
+    }
+    
+    public static Set<String> diff(Object oldConfig, Object newConfig) {
+        Set<String> changedPaths = new LinkedHashSet<>();
+        if (oldConfig == null || newConfig == null || oldConfig.getClass() != newConfig.getClass()) {
+            if (oldConfig != newConfig)
+                changedPaths.add("");
+            return changedPaths;
+        }
+        diffFields("", oldConfig, newConfig, changedPaths, new IdentityHashMap<>());
+        return changedPaths;
+    }
+    
+    /**
+     * Returns whether a change at {@code changedPath} affects {@code path}, which is the case if either contains the other.
+     */
+    public static boolean affects(String changedPath, String path) {
+        return isWithin(changedPath, path) || isWithin(path, changedPath);
+    }
+    
+    private static boolean isWithin(String path, String parent) {
+        if (parent.isEmpty())
+            return true;
+        if (!path.startsWith(parent))
+            return false;
+        if (path.length() == parent.length())
+            return true;
+        char next = path.charAt(parent.length());
+        return next == '.' || next == '[';
+    }
+    
+    private static void diffFields(String path, Object oldValue, Object newValue, Set<String> changedPaths, Map<Object, Set<Object>> visited) {
+        for (FieldAccessor field : ConfigCopier.getFields(oldValue.getClass())) {
+            if (Modifier.isTransient(field.getField().getModifiers()))
+                continue;
+            String name = field.getField().getName();
+            diffValue(path.isEmpty() ? name : path + "." + name, field.get(oldValue), field.get(newValue), changedPaths, visited);
+        }
+    }
+    
+    private static void diffValue(String path, Object oldValue, Object newValue, Set<String> changedPaths, Map<Object, Set<Object>> visited) {
+        if (oldValue == newValue)
+            return;
+        if (oldValue == null || newValue == null) {
+            changedPaths.add(path);
+            return;
+        }
+        // Each pair is only descended into once, cycles would otherwise never end
+        if (!visited.computeIfAbsent(oldValue, value -> Collections.newSetFromMap(new IdentityHashMap<>())).add(newValue))
+            return;
+        if (oldValue instanceof List && newValue instanceof List) {
+            List<?> oldList = (List<?>) oldValue;
+            List<?> newList = (List<?>) newValue;
+            if (oldList.size() != newList.size()) {
+                changedPaths.add(path);
+                return;
+            }
+            for (int i = 0; i < oldList.size(); i++) {
+                diffValue(path + "[" + i + "]", oldList.get(i), newList.get(i), changedPaths, visited);
+            }
+            return;
+        }
+        if (oldValue instanceof Map && newValue instanceof Map) {
+            Map<?, ?> oldMap = (Map<?, ?>) oldValue;
+            Map<?, ?> newMap = (Map<?, ?>) newValue;
+            if (!oldMap.keySet().equals(newMap.keySet())) {
+                changedPaths.add(path);
+                return;
+            }
+            for (Map.Entry<?, ?> entry : oldMap.entrySet()) {
+                diffValue(path + "[" + entry.getKey() + "]", entry.getValue(), newMap.get(entry.getKey()), changedPaths, visited);
+            }
+            return;
+        }
+        Class<?> type = oldValue.getClass();
+        if (type != newValue.getClass()) {
+            changedPaths.add(path);
+            return;
+        }
+        if (type.isArray() && !type.getComponentType().isPrimitive()) {
+            Object[] oldArray = (Object[]) oldValue;
+            Object[] newArray = (Object[]) newValue;
+            if (oldArray.length != newArray.length) {
+                changedPaths.add(path);
+                return;
+            }
+            for (int i = 0; i < oldArray.length; i++) {
+                diffValue(path + "[" + i + "]", oldArray[i], newArray[i], changedPaths, visited);
+            }
+            return;
+        }
+        if (type.isArray() || ConfigCopier.isImmutable(type) || type.getModule().isNamed() || oldValue instanceof Collection) {
+            if (!ConfigCopier.contentEquals(oldValue, newValue))
+                changedPaths.add(path);
+            return;
+        }
+        diffFields(path, oldValue, newValue, changedPaths, visited);
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package me.shedaniel.autoconfig.util;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads and writes a single field through method handles, which are resolved once per {@link Field}.
+ * The typed accessors read and write primitive fields without boxing.
+ */
+@ApiStatus.Internal
+public final class FieldAccessor {
+    /**
+     * The accessors of each declaring class, kept with the class so they do not keep it or its class loader alive.
+     */
+    private static final ClassValue<Map<Field, FieldAccessor>> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected Map<Field, FieldAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final MethodHandle primitiveGetter;
+    private final MethodHandle primitiveSetter;
+    
+    private FieldAccessor(Field field) {
+        this.field = field;
+        field.setAccessible(true);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        boolean isStatic = Modifier.isStatic(field.getModifiers());
+        Class<?> type = field.getType();
+        MethodHandle rawGetter;
+        MethodHandle rawSetter;
+        try {
+            rawGetter = lookup.unreflectGetter(field);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        try {
+            rawSetter = lookup.unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            // Static final fields can not be written, Field#set would fail as well
+            rawSetter = null;
+        }
+        if (isStatic) {
+            rawGetter = MethodHandles.dropArguments(rawGetter, 0, Object.class);
+            if (rawSetter != null)
+                rawSetter = MethodHandles.dropArguments(rawSetter, 0, Object.class);
+        }
+        this.getter = rawGetter.asType(MethodType.methodType(Object.class, Object.class));
+        this.setter = rawSetter == null ? null : rawSetter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        if (type.isPrimitive()) {
+            this.primitiveGetter = rawGetter.asType(MethodType.methodType(type, Object.class));
+            this.primitiveSetter = rawSetter == null ? null : rawSetter.asType(MethodType.methodType(void.class, Object.class, type));
+        } else {
+            this.primitiveGetter = null;
+            this.primitiveSetter = null;
+        }
+    }
+    
+    public static FieldAccessor of(Field field) {
+        return ACCESSORS.get(field.getDeclaringClass()).computeIfAbsent(field, FieldAccessor::new);
+    }
+    
+    public Field getField() {
+        return field;
+    }
+    
+    public <V> V get(Object obj) {
+        if (obj == null)
+            return null;
+        
+        try {
+            Object value = getter.invokeExact(obj);
+            //noinspection unchecked
+            return (V) value;
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+    
+    public <V> V get(Object obj, V defaultValue) {
+        V ret = get(obj);
+        if (ret == null)
+            ret = defaultValue;
+        return ret;
+    }
+    
+    public void set(Object obj, Object newValue) {
+        if (obj == null)
+            return;
+        
+        try {
+            writableSetter(setter).invokeExact(obj, newValue);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+    
+    public int getInt(Object obj) {
+        try {
+            return (int) primitiveGetter(int.class).invokeExact(obj);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+    
+    public void setInt(Object obj, int newValue) {
+        try {
+            writableSetter(primitiveSetter(int.class)).invokeExact(obj, newValue);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+    
+    public long getLong(Object obj) {
+        try {
+            return (long) primitiveGetter(long.class).invokeExact(obj);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+    
+    public void setLong(Object obj, long newValue) {
+        try {
+            writableSetter(primitiveSetter(long.class)).invokeExact(obj, newValue);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+    
+    public float getFloat(Object obj) {
+        try {
+            return (float) primitiveGetter(float.class).invokeExact(obj);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+    
+    public void setFloat(Object obj, float newValue) {
+        try {
+            writableSetter(primitiveSetter(float.class)).invokeExact(obj, newValue);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+    
+    public double getDouble(Object obj) {
+        try {
+            return (double) primitiveGetter(double.class).invokeExact(obj);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+    
+    public void setDouble(Object obj, double newValue) {
+        try {
+            writableSetter(primitiveSetter(double.class)).invokeExact(obj, newValue);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+    
+    public boolean getBoolean(Object obj) {
+        try {
+            return (boolean) primitiveGetter(boolean.class).invokeExact(obj);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+    
+    public void setBoolean(Object obj, boolean newValue) {
+        try {
+            writableSetter(primitiveSetter(boolean.class)).invokeExact(obj, newValue);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+    
+    private MethodHandle primitiveGetter(Class<?> type) {
+        if (field.getType() != type)
+            throw new IllegalArgumentException(String.format("Field %s is not of type %s", field, type));
+        return primitiveGetter;
+    }
+    
+    private MethodHandle primitiveSetter(Class<?> type) {
+        if (field.getType() != type)
+            throw new IllegalArgumentException(String.format("Field %s is not of type %s", field, type));
+        return primitiveSetter;
+    }
+    
+    private MethodHandle writableSetter(MethodHandle setter) {
+        if (setter == null)
+            throw new RuntimeException(new IllegalAccessException(String.format("Field %s is not writable", field)));
+        return setter;
+    }
+    
+    private static RuntimeException rethrow(Throwable throwable) {
+        if (throwable instanceof RuntimeException)
+            throw (RuntimeException) throwable;
+        if (throwable instanceof Error)
+            throw (Error) throwable;
+        throw new RuntimeException(throwable);
+    }
+}
@@ -51,16 +51,7 @@ public class Utils {
     }
     
     public static <V> V getUnsafely(Field field, Object obj) {
-        if (obj == null)
-            return null;
-        
-        try {
-            field.setAccessible(true);
-            //noinspection unchecked
-            return (V) field.get(obj);
-        } catch (ReflectiveOperationException e) {
-            throw new RuntimeException(e);
-        }
+        return FieldAccessor.of(field).get(obj);
     }
     
     public static <V> V getUnsafely(Field field, Object obj, V defaultValue) {
@@ -71,15 +62,7 @@ public class Utils {
     }
     
     public static void setUnsafely(Field field, Object obj, Object newValue) {
-        if (obj == null)
-            return;
-        
-        try {
-            field.setAccessible(true);
-            field.set(obj, newValue);
-        } catch (ReflectiveOperationException e) {
-            throw new RuntimeException(e);
-        }
+        FieldAccessor.of(field).set(obj, newValue);
     }
     
     public static <T, K, U> Collector<T, ?, Map<K, U>> toLinkedMap(
@@ -63,6 +63,10 @@ public abstract class AbstractConfigEntry<T> extends DynamicElementListWidget.El
         if (configScreen instanceof ReferenceBuildingConfigScreen) {
             ((ReferenceBuildingConfigScreen) configScreen).requestReferenceRebuilding();
         }
+        // The search index also covers the referenced entries
+        if (configScreen != null) {
+            configScreen.requestSearchIndexRebuilding();
+        }
     }
     
     @Override
@@ -117,6 +121,10 @@ public abstract class AbstractConfigEntry<T> extends DynamicElementListWidget.El
         } else {
             this.additionalSearchTags = Iterables.concat(this.additionalSearchTags, tags);
         }
+        AbstractConfigScreen configScreen = getConfigScreen();
+        if (configScreen != null) {
+            configScreen.requestSearchIndexRebuilding();
+        }
     }
     
     public final Optional<Text> getConfigError() {
@@ -176,6 +184,59 @@ public abstract class AbstractConfigEntry<T> extends DynamicElementListWidget.El
         return getConfigError().isPresent();
     }
     
+    /**
+     * Notifies the screen that the value, edited state or error of this entry may have changed.
+     * Handled input events already do this, programmatic value changes should call it.
+     */
+    public void requestDirtyStateUpdate() {
+        AbstractConfigScreen configScreen = getConfigScreen();
+        if (configScreen != null) {
+            configScreen.requestDirtyStateUpdate();
+        }
+    }
+    
+    private boolean requestDirtyStateUpdate(boolean handled) {
+        if (handled) {
+            requestDirtyStateUpdate();
+        }
+        return handled;
+    }
+    
+    @Override
+    public boolean mouseClicked(double mouseX, double mouseY, int button) {
+        return requestDirtyStateUpdate(super.mouseClicked(mouseX, mouseY, button));
+    }
+    
+    @Override
+    public boolean mouseReleased(double mouseX, double mouseY, int button) {
+        return requestDirtyStateUpdate(super.mouseReleased(mouseX, mouseY, button));
+    }
+    
+    @Override
+    public boolean mouseDragged(double mouseX, double mouseY, int button, double deltaX, double deltaY) {
+        return requestDirtyStateUpdate(super.mouseDragged(mouseX, mouseY, button, deltaX, deltaY));
+    }
+    
+    @Override
+    public boolean mouseScrolled(double mouseX, double mouseY, double amountX, double amountY) {
+        return requestDirtyStateUpdate(super.mouseScrolled(mouseX, mouseY, amountX, amountY));
+    }
+    
+    @Override
+    public boolean keyPressed(int keyCode, int scanCode, int modifiers) {
+        return requestDirtyStateUpdate(super.keyPressed(keyCode, scanCode, modifiers));
+    }
+    
+    @Override
+    public boolean keyReleased(int keyCode, int scanCode, int modifiers) {
+        return requestDirtyStateUpdate(super.keyReleased(keyCode, scanCode, modifiers));
+    }
+    
+    @Override
+    public boolean charTyped(char chr, int modifiers) {
+        return requestDirtyStateUpdate(super.charTyped(chr, modifiers));
+    }
+    
     @Override
     public int getItemHeight() {
         return 24;
@@ -26,6 +26,7 @@ import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -40,6 +41,25 @@ public interface ConfigCategory {
     
     ConfigCategory addEntry(AbstractConfigListEntry entry);
     
+    /**
+     * Adds entries that are only created once they are needed, usually when the category is first opened.
+     * The entries keep their place among the other entries of the category.
+     */
+    default ConfigCategory addLazyEntries(Supplier<? extends Collection<? extends AbstractConfigListEntry>> entries) {
+        for (AbstractConfigListEntry entry : entries.get()) {
+            addEntry(entry);
+        }
+        return this;
+    }
+    
+    /**
+     * Returns whether entries added by {@link #addLazyEntries(Supplier)} have not been created yet.
+     * {@link #getEntries()} creates them.
+     */
+    default boolean hasLazyEntries() {
+        return false;
+    }
+    
     ConfigCategory setCategoryBackground(Identifier identifier);
     
     void setBackground(@Nullable Identifier background);
@@ -19,15 +19,11 @@
 
 package me.shedaniel.clothconfig2.api;
 
+import me.shedaniel.clothconfig2.impl.DependentRequirement;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.*;
 
 /**
  * Represents a predicate (boolean-valued function) without arguments.
@@ -44,71 +40,103 @@ public interface Requirement {
      */
     boolean check();
     
+    /**
+     * Gets the {@link ValueHolder}s whose values this requirement depends on.
+     * 
+     * <p>Requirements created by the factory methods of this interface over entries of a config screen
+     * only re-evaluate after an entry reported a change. Arbitrary requirements are always re-evaluated.
+     * 
+     * @return the dependencies, or {@code null} if they are unknown
+     */
+    @Nullable
+    default Collection<ValueHolder<?>> getDependencies() {
+        return null;
+    }
+    
     /**
      * Generates a {@link Requirement} that is true when {@code dependency}'s value is one of the provided values.
      */
     @SafeVarargs
     static <T> Requirement isValue(ValueHolder<T> dependency, @Nullable T firstValue, @Nullable T... otherValues) {
-        Set<@Nullable T> values = Stream.concat(Stream.of(firstValue), Arrays.stream(otherValues))
-                .collect(Collectors.toCollection(HashSet::new));
+        Set<@Nullable T> values = new HashSet<>();
+        values.add(firstValue);
+        Collections.addAll(values, otherValues);
         
-        return () -> values.contains(dependency.getValue());
+        return new DependentRequirement(dependencyValues -> values.contains(dependencyValues[0]), dependency);
     }
     
     /**
      * Generates a {@link Requirement} that is true when {@code firstDependency}'s value equals {@code secondDependency}'s value.
      */
     static <T> Requirement matches(ValueHolder<T> firstDependency, ValueHolder<T> secondDependency) {
-        return () -> Objects.equals(firstDependency.getValue(), secondDependency.getValue());
+        return new DependentRequirement(values -> Objects.equals(values[0], values[1]), firstDependency, secondDependency);
     }
     
     /**
      * Generates a {@link Requirement} that is true when {@code dependency}'s value is true.
      */
     static Requirement isTrue(ValueHolder<Boolean> dependency) {
-        return () -> Boolean.TRUE.equals(dependency.getValue());
+        return new DependentRequirement(values -> Boolean.TRUE.equals(values[0]), dependency);
     }
     
     /**
      * Generates a {@link Requirement} that is true when {@code dependency}'s value is false.
      */
     static Requirement isFalse(ValueHolder<Boolean> dependency) {
-        return () -> Boolean.FALSE.equals(dependency.getValue());
+        return new DependentRequirement(values -> Boolean.FALSE.equals(values[0]), dependency);
     }
     
     /**
      * Generates a {@link Requirement} that is true when the given {@code requirement} is false.
      */
     static Requirement not(Requirement requirement) {
-        return () -> !requirement.check();
+        return withDependencies(() -> !requirement.check(), requirement);
     }
   
     /**
      * Generates a {@link Requirement} that is true when all the given requirements are true.
      */
     static Requirement all(Requirement... requirements) {
-        return () -> Arrays.stream(requirements).allMatch(Requirement::check);
+        return withDependencies(() -> {
+            for (Requirement requirement : requirements) {
+                if (!requirement.check())
+                    return false;
+            }
+            return true;
+        }, requirements);
     }
     
     /**
      * Generates a {@link Requirement} that is true when any of the given requirements are true.
      */
     static Requirement any(Requirement... requirements) {
-        return () -> Arrays.stream(requirements).anyMatch(Requirement::check);
+        return withDependencies(() -> {
+            for (Requirement requirement : requirements) {
+                if (requirement.check())
+                    return true;
+            }
+            return false;
+        }, requirements);
     }
     
     /**
      * Generates a {@link Requirement} that is true when none of the given requirements are true, i.e. all are false.
      */
     static Requirement none(Requirement... requirements) {
-        return () -> Arrays.stream(requirements).noneMatch(Requirement::check);
+        return withDependencies(() -> {
+            for (Requirement requirement : requirements) {
+                if (requirement.check())
+                    return false;
+            }
+            return true;
+        }, requirements);
     }
     
     /**
      * Generates a {@link Requirement} that is true when precisely one of the given requirements is true.
      */
     static Requirement one(Requirement... requirements) {
-        return () -> {
+        return withDependencies(() -> {
             // Use a for loop instead of Stream.count() so that we can return early. We only need to count past 1.
             boolean oneFound = false;
             for (Requirement requirement : requirements) {
@@ -119,6 +147,28 @@ public interface Requirement {
                oneFound = true;
             }
             return oneFound;
+        }, requirements);
+    }
+    
+    private static Requirement withDependencies(Requirement requirement, Requirement... children) {
+        Set<ValueHolder<?>> dependencies = new LinkedHashSet<>();
+        for (Requirement child : children) {
+            Collection<ValueHolder<?>> childDependencies = child.getDependencies();
+            if (childDependencies == null)
+                return requirement;
+            dependencies.addAll(childDependencies);
+        }
+        Collection<ValueHolder<?>> unmodifiableDependencies = Collections.unmodifiableSet(dependencies);
+        return new Requirement() {
+            @Override
+            public boolean check() {
+                return requirement.check();
+            }
+            
+            @Override
+            public Collection<ValueHolder<?>> getDependencies() {
+                return unmodifiableDependencies;
+            }
         };
     }
 }
@@ -51,6 +51,7 @@ import org.joml.Matrix4f;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -61,7 +62,8 @@ public abstract class AbstractConfigScreen extends Screen implements ConfigScree
     protected static final Identifier CONFIG_TEX = new Identifier("cloth-config2", "textures/gui/cloth_config.png");
     private final Identifier backgroundLocation;
     protected boolean confirmSave;
-    protected final Screen parent;
+    protected Screen parent;
+    private boolean releaseParentOnClose;
     private boolean alwaysShowTabs = false;
     private boolean transparentBackground = false;
     @Nullable
@@ -75,6 +77,11 @@ public abstract class AbstractConfigScreen extends Screen implements ConfigScree
     private Runnable savingRunnable = null;
     @Nullable
     protected Consumer<Screen> afterInitConsumer = null;
+    private boolean dirtyStateOutdated = true;
+    private int changeCount;
+    private int editedEntries;
+    private int restartRequiringEntries;
+    private List<Text> configErrors = Collections.emptyList();
     
     protected AbstractConfigScreen(Screen parent, Text title, Identifier backgroundLocation) {
         super(title);
@@ -103,28 +110,113 @@ public abstract class AbstractConfigScreen extends Screen implements ConfigScree
     
     @Override
     public boolean isRequiresRestart() {
-        for (List<AbstractConfigEntry<?>> entries : getCategorizedEntries().values()) {
-            for (AbstractConfigEntry<?> entry : entries) {
-                if (entry.getConfigError().isEmpty() && entry.isEdited() && entry.isRequiresRestart()) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        updateDirtyState();
+        return restartRequiringEntries > 0;
     }
     
     public abstract Map<Text, List<AbstractConfigEntry<?>>> getCategorizedEntries();
     
     @Override
     public boolean isEdited() {
+        updateDirtyState();
+        return editedEntries > 0;
+    }
+    
+    public boolean hasErrors() {
+        updateDirtyState();
+        return !configErrors.isEmpty();
+    }
+    
+    /**
+     * @return the errors of all entries, in order
+     */
+    public List<Text> getConfigErrors() {
+        updateDirtyState();
+        return configErrors;
+    }
+    
+    /**
+     * Marks the edited, error and restart states of the entries as outdated,
+     * they are recounted the next time they are queried.
+     */
+    public void requestDirtyStateUpdate() {
+        this.dirtyStateOutdated = true;
+        this.changeCount++;
+    }
+    
+    /**
+     * @return the number of times {@link #requestDirtyStateUpdate()} was called, used to tell whether entry values may have changed
+     */
+    @ApiStatus.Internal
+    public int getChangeCount() {
+        return changeCount;
+    }
+    
+    private void updateDirtyState() {
+        if (!dirtyStateOutdated) return;
+        this.dirtyStateOutdated = false;
+        int edited = 0;
+        int restartRequiring = 0;
+        List<Text> errors = Lists.newArrayList();
         for (List<AbstractConfigEntry<?>> entries : getCategorizedEntries().values()) {
             for (AbstractConfigEntry<?> entry : entries) {
-                if (entry.isEdited()) {
-                    return true;
+                Optional<Text> error = entry.getConfigError();
+                boolean isEdited = entry.isEdited();
+                if (isEdited) edited++;
+                if (error.isPresent()) {
+                    errors.add(error.get());
+                } else if (isEdited && entry.isRequiresRestart()) {
+                    restartRequiring++;
                 }
             }
         }
-        return false;
+        this.editedEntries = edited;
+        this.restartRequiringEntries = restartRequiring;
+        this.configErrors = errors;
+    }
+    
+    /**
+     * Replaces entries of a category with new ones, e.g. to show changed values on a screen that is shown again.
+     * The replaced entries must follow each other in the category.
+     *
+     * @return whether the entries were found and replaced
+     */
+    @ApiStatus.Internal
+    public boolean replaceEntries(Text categoryKey, List<? extends AbstractConfigEntry<?>> oldEntries, List<? extends AbstractConfigEntry<?>> newEntries) {
+        List<AbstractConfigEntry<?>> entries = getCategorizedEntries().get(categoryKey);
+        if (entries == null || oldEntries.isEmpty())
+            return false;
+        int index = -1;
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i) == oldEntries.get(0)) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0 || index + oldEntries.size() > entries.size())
+            return false;
+        for (int i = 1; i < oldEntries.size(); i++) {
+            if (entries.get(index + i) != oldEntries.get(i))
+                return false;
+        }
+        List<AbstractConfigEntry<?>> replaced = entries.subList(index, index + oldEntries.size());
+        replaced.clear();
+        replaced.addAll(newEntries);
+        for (AbstractConfigEntry<?> entry : newEntries) {
+            entry.setScreen(this);
+        }
+        if (this instanceof ReferenceBuildingConfigScreen)
+            ((ReferenceBuildingConfigScreen) this).requestReferenceRebuilding();
+        requestSearchIndexRebuilding();
+        requestDirtyStateUpdate();
+        return true;
+    }
+    
+    public boolean matchesSearch(AbstractConfigEntry<?> entry) {
+        return matchesSearch(entry.getSearchTags());
+    }
+    
+    public void requestSearchIndexRebuilding() {
     }
     
     public boolean isShowingTabs() {
@@ -174,11 +266,12 @@ public abstract class AbstractConfigScreen extends Screen implements ConfigScree
             for (AbstractConfigEntry<?> entry : entries)
                 entry.save();
         save();
+        requestDirtyStateUpdate();
         if (openOtherScreens) {
             if (isRequiresRestart())
-                AbstractConfigScreen.this.client.setScreen(new ClothRequiresRestartScreen(parent));
+                closeTo(new ClothRequiresRestartScreen(parent));
             else
-                AbstractConfigScreen.this.client.setScreen(parent);
+                closeTo(parent);
         }
     }
     
@@ -190,6 +283,29 @@ public abstract class AbstractConfigScreen extends Screen implements ConfigScree
         return editable;
     }
     
+    /**
+     * Sets the screen returned to when this screen is closed, used when a screen is shown again.
+     */
+    @ApiStatus.Internal
+    public void setParent(Screen parent) {
+        this.parent = parent;
+    }
+    
+    /**
+     * Forgets the parent once this screen is closed, so a kept screen does not keep the screens before it alive.
+     * The parent has to be set again before the screen is shown again.
+     */
+    @ApiStatus.Internal
+    public void setReleaseParentOnClose(boolean releaseParentOnClose) {
+        this.releaseParentOnClose = releaseParentOnClose;
+    }
+    
+    private void closeTo(Screen next) {
+        client.setScreen(next);
+        if (releaseParentOnClose)
+            parent = null;
+    }
+    
     @ApiStatus.Internal
     public void setEditable(boolean editable) {
         this.editable = editable;
@@ -207,6 +323,7 @@ public abstract class AbstractConfigScreen extends Screen implements ConfigScree
     @ApiStatus.Internal
     public void setFocusedBinding(KeyCodeEntry focusedBinding) {
         this.focusedBinding = focusedBinding;
+        requestDirtyStateUpdate();
         if (focusedBinding != null) {
             startedKeyCode = this.focusedBinding.getValue();
             startedKeyCode.setKeyCodeAndModifier(InputUtil.UNKNOWN_KEY, Modifier.none());
@@ -326,7 +443,7 @@ public abstract class AbstractConfigScreen extends Screen implements ConfigScree
         if (confirmSave && isEdited())
             client.setScreen(new ConfirmScreen(new QuitSaveConsumer(), Text.translatable("text.cloth-config.quit_config"), Text.translatable("text.cloth-config.quit_config_sure"), Text.translatable("text.cloth-config.quit_discard"), Text.translatable("gui.cancel")));
         else
-            client.setScreen(parent);
+            closeTo(parent);
         return true;
     }
     
@@ -336,7 +453,7 @@ public abstract class AbstractConfigScreen extends Screen implements ConfigScree
             if (!t)
                 client.setScreen(AbstractConfigScreen.this);
             else
-                client.setScreen(parent);
+                closeTo(parent);
         }
     }
     
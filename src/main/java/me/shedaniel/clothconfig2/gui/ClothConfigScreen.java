@@ -33,6 +33,7 @@ import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.gui.Element;
 import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.client.gui.widget.ButtonWidget;
 import net.minecraft.client.gui.widget.ClickableWidget;
@@ -48,6 +49,7 @@ import net.minecraft.util.Identifier;
 import net.minecraft.util.Pair;
 import net.minecraft.util.math.MathHelper;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Matrix4f;
 
 import java.util.*;
@@ -84,21 +86,20 @@ public class ClothConfigScreen extends AbstractTabbedConfigScreen {
     private double tabsMaximumScrolled = -1d;
     private final List<ClothConfigTabButton> tabButtons = Lists.newArrayList();
     private final Map<String, ConfigCategory> categoryMap;
+    /**
+     * Categories with lazy entries, which are only created when the category is first selected.
+     */
+    private final Map<Text, ConfigCategory> lazyCategories = Maps.newHashMap();
     
     @ApiStatus.Internal
     public ClothConfigScreen(Screen parent, Text title, Map<String, ConfigCategory> categoryMap, Identifier backgroundLocation) {
         super(parent, title, backgroundLocation);
         categoryMap.forEach((categoryName, category) -> {
             List<AbstractConfigEntry<?>> entries = Lists.newArrayList();
-            for (Object object : category.getEntries()) {
-                AbstractConfigListEntry<?> entry;
-                if (object instanceof Pair<?, ?>) {
-                    entry = (AbstractConfigListEntry<?>) ((Pair<?, ?>) object).getRight();
-                } else {
-                    entry = (AbstractConfigListEntry<?>) object;
-                }
-                entry.setScreen(this);
-                entries.add(entry);
+            if (category.hasLazyEntries()) {
+                lazyCategories.put(category.getCategoryKey(), category);
+            } else {
+                addCategoryEntries(category, entries);
             }
             categorizedEntries.put(category.getCategoryKey(), entries);
             if (category.getBackground() != null) {
@@ -110,6 +111,31 @@ public class ClothConfigScreen extends AbstractTabbedConfigScreen {
         this.categoryMap = categoryMap;
     }
     
+    private void addCategoryEntries(ConfigCategory category, List<AbstractConfigEntry<?>> entries) {
+        for (Object object : category.getEntries()) {
+            AbstractConfigListEntry<?> entry;
+            if (object instanceof Pair<?, ?>) {
+                entry = (AbstractConfigListEntry<?>) ((Pair<?, ?>) object).getRight();
+            } else {
+                entry = (AbstractConfigListEntry<?>) object;
+            }
+            entry.setScreen(this);
+            entries.add(entry);
+        }
+    }
+    
+    /**
+     * Creates the entries of a category with lazy entries, if they have not been created yet.
+     */
+    private void createLazyEntries(Text categoryKey) {
+        ConfigCategory category = lazyCategories.remove(categoryKey);
+        if (category != null) {
+            addCategoryEntries(category, categorizedEntries.get(categoryKey));
+            requestDirtyStateUpdate();
+            requestSearchIndexRebuilding();
+        }
+    }
+    
     @Override
     public Text getSelectedCategory() {
         return tabs.get(selectedCategoryIndex).getLeft();
@@ -130,6 +156,7 @@ public class ClothConfigScreen extends AbstractTabbedConfigScreen {
         listWidget.children().add((AbstractConfigEntry) (searchFieldEntry = new SearchFieldEntry(this, listWidget)));
         listWidget.children().add((AbstractConfigEntry) new EmptyEntry(5));
         if (categorizedEntries.size() > selectedCategoryIndex) {
+            createLazyEntries(getSelectedCategory());
             listWidget.children().addAll((List) Lists.newArrayList(categorizedEntries.values()).get(selectedCategoryIndex));
         }
         int buttonWidths = Math.min(200, (width - 50 - 12) / 3);
@@ -137,16 +164,7 @@ public class ClothConfigScreen extends AbstractTabbedConfigScreen {
         addDrawableChild(new ButtonWidget(width / 2 + 3, height - 26, buttonWidths, 20, Text.empty(), button -> saveAll(true), Supplier::get) {
             @Override
             public void render(DrawContext graphics, int mouseX, int mouseY, float delta) {
-                boolean hasErrors = false;
-                for (List<AbstractConfigEntry<?>> entries : Lists.newArrayList(categorizedEntries.values())) {
-                    for (AbstractConfigEntry<?> entry : entries)
-                        if (entry.getConfigError().isPresent()) {
-                            hasErrors = true;
-                            break;
-                        }
-                    if (hasErrors)
-                        break;
-                }
+                boolean hasErrors = hasErrors();
                 active = isEdited() && !hasErrors;
                 setMessage(hasErrors ? Text.translatable("text.cloth-config.error_cannot_save") : Text.translatable("text.cloth-config.save_and_done"));
                 super.render(graphics, mouseX, mouseY, delta);
@@ -197,6 +215,17 @@ public class ClothConfigScreen extends AbstractTabbedConfigScreen {
         return searchFieldEntry.matchesSearch(tags);
     }
     
+    @Override
+    public boolean matchesSearch(AbstractConfigEntry<?> entry) {
+        return searchFieldEntry.matchesSearch(entry);
+    }
+    
+    @Override
+    public void requestSearchIndexRebuilding() {
+        if (searchFieldEntry != null)
+            searchFieldEntry.invalidateSearchIndex();
+    }
+    
     @Override
     public boolean mouseScrolled(double mouseX, double mouseY, double amountX, double amountY) {
         if (tabsBounds.contains(mouseX, mouseY) && !tabsLeftBounds.contains(mouseX, mouseY) && !tabsRightBounds.contains(mouseX, mouseY) && amountY != 0d) {
@@ -238,7 +267,7 @@ public class ClothConfigScreen extends AbstractTabbedConfigScreen {
         }
         listWidget.render(graphics, mouseX, mouseY, delta);
         ScissorsHandler.INSTANCE.scissor(new Rectangle(listWidget.left, listWidget.top, listWidget.width, listWidget.bottom - listWidget.top));
-        for (AbstractConfigEntry child : listWidget.children())
+        for (AbstractConfigEntry child : listWidget.renderedChildren())
             child.lateRender(graphics, mouseX, mouseY, delta);
         ScissorsHandler.INSTANCE.removeLastScissor();
         if (isShowingTabs()) {
@@ -258,11 +287,7 @@ public class ClothConfigScreen extends AbstractTabbedConfigScreen {
             graphics.drawCenteredTextWithShadow(client.textRenderer, title, width / 2, 12, -1);
         
         if (isEditable()) {
-            List<Text> errors = Lists.newArrayList();
-            for (List<AbstractConfigEntry<?>> entries : Lists.newArrayList(categorizedEntries.values()))
-                for (AbstractConfigEntry<?> entry : entries)
-                    if (entry.getConfigError().isPresent())
-                        errors.add(entry.getConfigError().get());
+            List<Text> errors = getConfigErrors();
             if (errors.size() > 0) {
                 RenderSystem.setShader(GameRenderer::getPositionTexProgram);
                 RenderSystem.setShaderTexture(0, CONFIG_TEX);
@@ -346,6 +371,7 @@ public class ClothConfigScreen extends AbstractTabbedConfigScreen {
         public ListWidget(AbstractConfigScreen screen, MinecraftClient client, int width, int height, int top, int bottom, Identifier backgroundLocation) {
             super(client, width, height, top, bottom, backgroundLocation);
             setRenderSelection(false);
+            setCulling(true);
             this.screen = screen;
         }
         
@@ -366,6 +392,21 @@ public class ClothConfigScreen extends AbstractTabbedConfigScreen {
             super.renderItem(graphics, item, index, y, x, entryWidth, entryHeight, mouseX, mouseY, isSelected, delta);
         }
         
+        @Override
+        protected void cullItem(R item, int index) {
+            if (item instanceof AbstractConfigEntry)
+                ((AbstractConfigEntry) item).updateSelected(getFocused() == item);
+        }
+        
+        @Override
+        public void setFocused(@Nullable Element guiEventListener) {
+            R previous = getFocused();
+            super.setFocused(guiEventListener);
+            // Culled rows are not rendered, so they would not notice losing the focus
+            if (previous != guiEventListener && previous instanceof AbstractConfigEntry && previous.isCulled())
+                ((AbstractConfigEntry) previous).updateSelected(false);
+        }
+        
         @Override
         protected void renderList(DrawContext graphics, int startX, int startY, int mouseX, int mouseY, float delta) {
             thisTimeTarget = null;
@@ -409,7 +450,7 @@ public class ClothConfigScreen extends AbstractTabbedConfigScreen {
                 return false;
             } else {
                 for (R entry : children()) {
-                    if (entry.mouseClicked(mouseX, mouseY, button)) {
+                    if (!entry.isCulled() && entry.mouseClicked(mouseX, mouseY, button)) {
                         this.setFocused(entry);
                         this.setDragging(true);
                         return true;
@@ -163,16 +163,7 @@ public class GlobalizedClothConfigScreen extends AbstractConfigScreen implements
         addDrawableChild(exitButton = new ButtonWidget(0, height - 26, buttonWidths, 20, Text.empty(), button -> saveAll(true), Supplier::get) {
             @Override
             public void render(DrawContext graphics, int mouseX, int mouseY, float delta) {
-                boolean hasErrors = false;
-                label:
-                for (List<AbstractConfigEntry<?>> entries : categorizedEntries.values()) {
-                    for (AbstractConfigEntry<?> entry : entries) {
-                        if (entry.getConfigError().isPresent()) {
-                            hasErrors = true;
-                            break label;
-                        }
-                    }
-                }
+                boolean hasErrors = hasErrors();
                 active = isEdited() && !hasErrors;
                 setMessage(hasErrors ? Text.translatable("text.cloth-config.error_cannot_save") : Text.translatable("text.cloth-config.save_and_done"));
                 super.render(graphics, mouseX, mouseY, delta);
@@ -186,6 +177,17 @@ public class GlobalizedClothConfigScreen extends AbstractConfigScreen implements
         return searchFieldEntry.matchesSearch(tags);
     }
     
+    @Override
+    public boolean matchesSearch(AbstractConfigEntry<?> entry) {
+        return searchFieldEntry.matchesSearch(entry);
+    }
+    
+    @Override
+    public void requestSearchIndexRebuilding() {
+        if (searchFieldEntry != null)
+            searchFieldEntry.invalidateSearchIndex();
+    }
+    
     private void buildReferences() {
         categorizedEntries.forEach((categoryText, entries) -> {
             this.references.add(new CategoryReference(categoryText));
@@ -224,7 +226,7 @@ public class GlobalizedClothConfigScreen extends AbstractConfigScreen implements
         listWidget.setLeftPos(sliderPosition);
         listWidget.render(graphics, mouseX, mouseY, delta);
         ScissorsHandler.INSTANCE.scissor(new Rectangle(listWidget.left, listWidget.top, listWidget.width, listWidget.bottom - listWidget.top));
-        for (AbstractConfigEntry<?> child : listWidget.children())
+        for (AbstractConfigEntry<?> child : listWidget.renderedChildren())
             child.lateRender(graphics, mouseX, mouseY, delta);
         ScissorsHandler.INSTANCE.removeLastScissor();
         graphics.drawTextWithShadow(textRenderer, title.asOrderedText(), (int) (sliderPosition + (width - sliderPosition) / 2f - textRenderer.getWidth(title) / 2f), 12, -1);
@@ -87,6 +87,7 @@ public abstract class AbstractTextFieldListListEntry<T, C extends AbstractTextFi
             widget.setCursorToStart(false);
             widget.setChangedListener(s -> {
                 widget.setEditableColor(getPreferredTextColor());
+                listListEntry.requestDirtyStateUpdate();
             });
         }
         
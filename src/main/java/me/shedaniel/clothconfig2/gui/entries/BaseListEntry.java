@@ -102,6 +102,7 @@ public abstract class BaseListEntry<T, C extends BaseListCell, SELF extends Base
             defaultValue.get().stream().map(this::getFromValue).forEach(cells::add);
             for (C cell : cells) {
                 cell.onAdd();
+                requestHeightUpdate();
             }
             widgets.addAll(cells);
             narratables.addAll(cells);
@@ -121,6 +122,7 @@ public abstract class BaseListEntry<T, C extends BaseListCell, SELF extends Base
     @Override
     public void setExpanded(boolean expanded) {
         this.expanded = expanded;
+        requestHeightUpdate();
     }
     
     @Override
@@ -346,6 +348,7 @@ public abstract class BaseListEntry<T, C extends BaseListCell, SELF extends Base
                     widgets.add(cell);
                 }
                 cell.onAdd();
+                requestHeightUpdate();
                 MinecraftClient.getInstance().getSoundManager().play(PositionedSoundInstance.master(SoundEvents.UI_BUTTON_CLICK, 1.0F));
                 return true;
             } else if (isDeleteButtonEnabled() && isInsideDelete(mouseX, mouseY)) {
@@ -355,6 +358,7 @@ public abstract class BaseListEntry<T, C extends BaseListCell, SELF extends Base
                     //noinspection SuspiciousMethodCalls
                     cells.remove(focused);
                     widgets.remove(focused);
+                    requestHeightUpdate();
                     MinecraftClient.getInstance().getSoundManager().play(PositionedSoundInstance.master(SoundEvents.UI_BUTTON_CLICK, 1.0F));
                 }
                 return true;
@@ -98,6 +98,7 @@ public class ColorEntry extends TextFieldListEntry<Integer> {
     @Deprecated
     public void setValue(int color) {
         textFieldWidget.setText(getHexColorString(color));
+        requestDirtyStateUpdate();
     }
     
     @Override
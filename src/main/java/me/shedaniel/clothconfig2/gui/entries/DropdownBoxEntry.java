@@ -752,6 +752,10 @@ public class DropdownBoxEntry<T> extends TooltipListEntry<T> {
             textFieldWidget.setDrawsBackground(false);
             textFieldWidget.setMaxLength(999999);
             textFieldWidget.setText(toTextFunction.apply(value).getString());
+            textFieldWidget.setChangedListener(s -> {
+                if (getParent() != null)
+                    getParent().requestDirtyStateUpdate();
+            });
         }
         
         @Override
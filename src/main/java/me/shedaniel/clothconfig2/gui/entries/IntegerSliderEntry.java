@@ -103,6 +103,7 @@ public class IntegerSliderEntry extends TooltipListEntry<Integer> {
         sliderWidget.setValue((MathHelper.clamp(value, minimum, maximum) - minimum) / (double) Math.abs(maximum - minimum));
         this.value.set(Math.min(Math.max(value, minimum), maximum));
         sliderWidget.updateMessage();
+        requestDirtyStateUpdate();
     }
     
     @Override
@@ -104,6 +104,7 @@ public class KeyCodeEntry extends TooltipListEntry<ModifierKeyCode> {
     
     public void setValue(ModifierKeyCode value) {
         this.value = value;
+        requestDirtyStateUpdate();
     }
     
     @Override
@@ -80,6 +80,8 @@ public abstract class TextFieldListEntry<T> extends TooltipListEntry<T> {
         };
         textFieldWidget.setMaxLength(999999);
         textFieldWidget.setText(String.valueOf(original));
+        // Covers typing, the reset button and programmatic changes alike
+        textFieldWidget.setChangedListener(s -> requestDirtyStateUpdate());
         this.resetButton = ButtonWidget.builder(resetButtonKey, widget -> {
             TextFieldListEntry.this.textFieldWidget.setText(String.valueOf(defaultValue.get()));
         }).dimensions(0, 0, MinecraftClient.getInstance().textRenderer.getWidth(resetButtonKey) + 6, 20).build();
@@ -78,7 +78,11 @@ public class TextListEntry extends TooltipListEntry<Object> {
     public void render(DrawContext graphics, int index, int y, int x, int entryWidth, int entryHeight, int mouseX, int mouseY, boolean isHovered, float delta) {
         super.render(graphics, index, y, x, entryWidth, entryHeight, mouseX, mouseY, isHovered, delta);
         if (this.savedWidth != entryWidth || this.savedX != x || this.savedY != y) {
+            int lineCount = this.wrappedLines.size();
             this.wrappedLines = this.textRenderer.wrapLines(this.text, entryWidth);
+            if (this.savedWidth == -1 || lineCount != this.wrappedLines.size()) {
+                requestHeightUpdate();
+            }
             this.savedWidth = entryWidth;
             this.savedX = x;
             this.savedY = y;
@@ -58,6 +58,13 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
     private final List<E> entries = new Entries();
     private float totalTicks = 1.0f;
     private List<E> visibleEntries = Collections.emptyList();
+    @Nullable
+    private List<E> indexedEntries = null;
+    private final RowIndex rowIndex = new RowIndex();
+    private boolean rowIndexOutdated = true;
+    private List<E> renderedEntries = new ArrayList<>();
+    private List<E> spareRenderedEntries = new ArrayList<>();
+    private int renderFrame;
     public int width;
     public int height;
     public int top;
@@ -68,6 +75,7 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
     protected int yDrag = -2;
     protected boolean selectionVisible = true;
     protected boolean renderSelection;
+    protected boolean culling;
     protected int headerHeight;
     protected double scroll;
     protected boolean scrolling;
@@ -100,16 +108,96 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
         return this.visibleEntries;
     }
     
+    /**
+     * Returns the entries rendered on the last frame, in the order they were rendered.
+     * With culling enabled, these are the only entries laid out for the current scroll position.
+     *
+     * @return an unmodifiable {@link List} of rendered entries
+     */
+    @ApiStatus.Experimental
+    public List<E> renderedChildren() {
+        return Collections.unmodifiableList(this.renderedEntries);
+    }
+    
     private void updateVisibleChildren() {
-        this.visibleEntries = this.children().stream()
+        List<E> visibleEntries = this.children().stream()
                 .filter(HideableWidget::isDisplayed)
                 .toList();
+        // Keep the same instance when nothing changed, so the row index stays valid
+        if (!visibleEntries.equals(this.visibleEntries)) {
+            this.visibleEntries = visibleEntries;
+        }
+    }
+    
+    /**
+     * Rebuilds the cumulative row height index of {@link #visibleChildren()}.
+     * Offsets are only recomputed from the first row whose height has changed.
+     */
+    protected void updateRowIndex() {
+        List<E> entries = this.visibleChildren();
+        int size = entries.size();
+        this.indexedEntries = entries;
+        this.rowIndexOutdated = false;
+        this.rowIndex.resize(size);
+        for (int i = 0; i < size; i++) {
+            E entry = entries.get(i);
+            this.rowIndex.set(i, entry.getItemHeight(), entry.getMorePossibleHeight());
+        }
+        this.rowIndex.update();
+    }
+    
+    /**
+     * Marks the row index as outdated, e.g. because the height of an entry changed.
+     * It is rebuilt the next time rows are looked up.
+     */
+    public void requestRowIndexUpdate() {
+        this.rowIndexOutdated = true;
+    }
+    
+    private void ensureRowIndex() {
+        if (this.rowIndexOutdated || this.indexedEntries != this.visibleChildren()) {
+            this.updateRowIndex();
+        }
+    }
+    
+    /**
+     * Marks the row index as outdated if the height of any row differs from the index,
+     * for entries whose height changed without {@link Entry#requestHeightUpdate()}.
+     */
+    private void checkRowHeights() {
+        List<E> entries = this.visibleChildren();
+        if (this.rowIndexOutdated || entries != this.indexedEntries)
+            return;
+        for (int i = 0; i < entries.size(); i++) {
+            E entry = entries.get(i);
+            if (entry.getItemHeight() != this.rowIndex.getHeight(i) || entry.getMorePossibleHeight() != this.rowIndex.getExtraHeight(i)) {
+                this.rowIndexOutdated = true;
+                return;
+            }
+        }
     }
     
     public void setRenderSelection(boolean boolean_1) {
         this.selectionVisible = boolean_1;
     }
     
+    public boolean isCulling() {
+        return culling;
+    }
+    
+    /**
+     * Sets whether rows outside of the {@code top} / {@code bottom} viewport are skipped when rendering.
+     * Culled rows still take up their height, and are passed to {@link #cullItem(Entry, int)} instead.
+     *
+     * @param culling whether to cull rows outside of the viewport
+     */
+    public void setCulling(boolean culling) {
+        this.culling = culling;
+        for (E entry : this.entries) {
+            entry.culled = culling && entry.renderedFrame != this.renderFrame;
+        }
+    }
+    
     protected void setRenderHeader(boolean boolean_1, int headerHeight) {
         this.renderSelection = boolean_1;
         this.headerHeight = headerHeight;
@@ -209,20 +297,15 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
             return null;
         }
         
-        // Otherwise look for the selected item
-        E itemAtPosition = null;
-        int itemY = 0;
-        for (E item : visibleChildren()) {
-            itemY += item.getItemHeight();
-            if (itemY > currentY) {
-                itemAtPosition = item;
-                break;
-            }
-        }
-        return itemAtPosition;
+        // Otherwise binary search for the row under the cursor
+        this.ensureRowIndex();
+        int row = this.rowIndex.getRowAt(currentY);
+        return row == -1 ? null : this.indexedEntries.get(row);
     }
     
     public void updateSize(int width, int height, int top, int bottom) {
+        // Entries may wrap their contents to the new width
+        this.requestRowIndexUpdate();
         this.width = width;
         this.height = height;
         this.top = top;
@@ -237,16 +320,8 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
     }
     
     protected int getMaxScrollPosition() {
-        List<Integer> list = new ArrayList<>();
-        int i = headerHeight;
-        for (E entry : visibleChildren()) {
-            i += entry.getItemHeight();
-            if (entry.getMorePossibleHeight() >= 0) {
-                list.add(i + entry.getMorePossibleHeight());
-            }
-        }
-        list.add(i);
-        return list.stream().max(Integer::compare).orElse(0);
+        this.ensureRowIndex();
+        return headerHeight + this.rowIndex.getMaxBottom();
     }
     
     protected void clickedHeader(int int_1, int int_2) {
@@ -257,6 +332,7 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
         for (E child : this.children()) {
            child.tick();
         }
+        this.checkRowHeights();
     }
     
     protected void renderHeader(DrawContext graphics, int rowLeft, int startY, Tessellator tessellator) {
@@ -290,6 +366,7 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
             this.totalTicks = this.totalTicks % 1.0f;
             this.tickList();
         }
+        this.ensureRowIndex();
         
         this.drawBackground();
         int scrollbarPosition = this.getScrollbarPosition();
@@ -334,16 +411,10 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
     }
     
     protected void centerScrollOn(E item) {
-        List<E> children = this.visibleChildren();
+        this.ensureRowIndex();
         double halfway = (this.bottom - this.top) / -2d;
-        int itemIndex = children.indexOf(item);
-        int i = 0;
-        for (E elm : children) {
-            if (i++ >= itemIndex) {
-                break;
-            }
-            halfway += elm.getItemHeight();
-        }
+        int itemIndex = this.indexedEntries.indexOf(item);
+        halfway += this.rowIndex.getTop(itemIndex);
         this.capYPosition(halfway);
     }
     
@@ -499,7 +570,7 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
     
     public boolean mouseScrolled(double double_1, double double_2, double amountX, double amountY) {
         for (E entry : visibleChildren()) {
-            if (entry.mouseScrolled(double_1, double_2, amountX, amountY)) {
+            if (!entry.isCulled() && entry.mouseScrolled(double_1, double_2, amountX, amountY)) {
                 return true;
             }
         }
@@ -538,55 +609,94 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
     }
     
     protected void renderList(DrawContext graphics, int startX, int startY, int mouseX, int mouseY, float delta) {
-        Tessellator tesselator = Tessellator.getInstance();
-        BufferBuilder buffer = tesselator.getBuffer();
-        
         hoveredItem = this.isMouseOver(mouseX, mouseY) ? this.getItemAtPosition(mouseX, mouseY) : null;
         
-        int heights = 0; // itemHeight accumulator
-        int renderIndex = 0; // index is passed to render methods
-        for (E item : visibleChildren()) {
-            int itemY = startY + headerHeight + heights;
-            int itemHeight = item.getItemHeight() - 4;
-            int itemWidth = this.getItemWidth();
-            boolean itemHovered = Objects.equals(this.hoveredItem, item);
+        this.ensureRowIndex();
+        List<E> entries = this.indexedEntries;
+        List<E> lastRendered = this.renderedEntries;
+        this.renderedEntries = this.spareRenderedEntries;
+        this.spareRenderedEntries = lastRendered;
+        this.renderedEntries.clear();
+        this.renderFrame++;
+        
+        int first = 0;
+        int last = entries.size() - 1;
+        if (this.culling) {
+            // Binary search the rows intersecting the viewport, relative to the first row
+            int viewTop = this.top - (startY + headerHeight);
+            int viewBottom = this.bottom - (startY + headerHeight);
+            first = this.rowIndex.getFirstRowEndingAfter(viewTop - 1);
+            last = this.rowIndex.getLastRowStartingBefore(viewBottom + 2);
             
-            if (this.selectionVisible && Objects.equals(this.selectedItem, item)) {
-                int itemMinX = this.left + (this.width - itemWidth) / 2;
-                int itemMaxX = this.left + (this.width + itemWidth) / 2;
-                graphics.fill(itemMinX, itemY - 2, itemMaxX, itemY + itemHeight + 2, this.isFocused() ? 0xffffffff : 0xff808080);
-                graphics.fill(itemMinX + 1, itemY - 1, itemMaxX - 1, itemY + itemHeight + 1, 0xff000000);
+            // Rows above the viewport may still reach into it, e.g. with an opened dropdown
+            for (int i = 0; i < this.rowIndex.getExtendedRowCount(); i++) {
+                int row = this.rowIndex.getExtendedRow(i);
+                if (row >= first)
+                    break;
+                if (this.rowIndex.getTop(row + 1) + this.rowIndex.getExtraHeight(row) >= viewTop) {
+                    this.renderRow(graphics, entries.get(row), row, startY, mouseX, mouseY, delta);
+                }
             }
-            
-            // Finally, call render
-            int y = this.getRowTop(renderIndex);
-            int x = this.getRowLeft();
-            renderItem(graphics, item, renderIndex, y, x, itemWidth, itemHeight, mouseX, mouseY, itemHovered, delta);
-            
-            // Update counter and accumulator
-            heights += item.getItemHeight();
-            renderIndex++;
         }
+        for (int i = first; i <= last; i++) {
+            this.renderRow(graphics, entries.get(i), i, startY, mouseX, mouseY, delta);
+        }
+        
+        // Rows which left the viewport are culled once
+        for (int i = 0; i < lastRendered.size(); i++) {
+            E item = lastRendered.get(i);
+            if (item.renderedFrame != this.renderFrame) {
+                item.culled = this.culling;
+                cullItem(item, item.renderedIndex);
+            }
+        }
+        lastRendered.clear();
+    }
+    
+    private void renderRow(DrawContext graphics, E item, int index, int startY, int mouseX, int mouseY, float delta) {
+        item.culled = false;
+        item.renderedFrame = this.renderFrame;
+        item.renderedIndex = index;
+        this.renderedEntries.add(item);
+        if (item.getItemHeight() != this.rowIndex.getHeight(index) || item.getMorePossibleHeight() != this.rowIndex.getExtraHeight(index)) {
+            this.requestRowIndexUpdate();
+        }
+        
+        int itemY = startY + headerHeight + this.rowIndex.getTop(index);
+        int itemHeight = item.getItemHeight() - 4;
+        int itemWidth = this.getItemWidth();
+        boolean itemHovered = Objects.equals(this.hoveredItem, item);
+        
+        if (this.selectionVisible && Objects.equals(this.selectedItem, item)) {
+            int itemMinX = this.left + (this.width - itemWidth) / 2;
+            int itemMaxX = this.left + (this.width + itemWidth) / 2;
+            graphics.fill(itemMinX, itemY - 2, itemMaxX, itemY + itemHeight + 2, this.isFocused() ? 0xffffffff : 0xff808080);
+            graphics.fill(itemMinX + 1, itemY - 1, itemMaxX - 1, itemY + itemHeight + 1, 0xff000000);
+        }
+        
+        // Finally, call render
+        int x = this.getRowLeft();
+        renderItem(graphics, item, index, itemY, x, itemWidth, itemHeight, mouseX, mouseY, itemHovered, delta);
     }
     
     protected void renderItem(DrawContext graphics, E item, int index, int y, int x, int entryWidth, int entryHeight, int mouseX, int mouseY, boolean isSelected, float delta) {
         item.render(graphics, index, y, x, entryWidth, entryHeight, mouseX, mouseY, isSelected, delta);
     }
     
+    /**
+     * Called once for a row which was rendered on the last frame, but is not rendered anymore.
+     */
+    protected void cullItem(E item, int index) {
+    }
+    
     protected int getRowLeft() {
         return this.left + this.width / 2 - this.getItemWidth() / 2 + 2;
     }
     
     public int getRowTop(int index) {
+        this.ensureRowIndex();
         int top = this.top + 4 - (int) this.getScroll() + headerHeight;
-        int i = 0;
-        for (E item : visibleChildren()) {
-            if (index <= i++) {
-                break;
-            }
-            top += item.getItemHeight(); 
-        }
-        return top;
+        return top + this.rowIndex.getTop(index);
     }
     
     @Override
@@ -640,6 +750,9 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
         protected Requirement displayRequirement = null;
         protected boolean enabled = true;
         protected boolean displayed = true;
+        boolean culled;
+        int renderedFrame = -1;
+        int renderedIndex;
         
         public Entry() {
         }
@@ -650,6 +763,14 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
             return Objects.equals(this.parent.getItemAtPosition(double_1, double_2), this);
         }
         
+        /**
+         * Whether this entry was culled from the parent's viewport on the last rendered frame,
+         * in which case its widgets are not laid out for the current scroll position.
+         */
+        public boolean isCulled() {
+            return culled;
+        }
+        
         public DynamicEntryListWidget<E> getParent() {
             return parent;
         }
@@ -695,6 +816,15 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
             return -1;
         }
         
+        /**
+         * Tells the parent list that the height of this entry changed, so that its rows are laid out again.
+         */
+        public void requestHeightUpdate() {
+            if (this.parent != null) {
+                this.parent.requestRowIndexUpdate();
+            }
+        }
+        
         public abstract List<? extends Selectable> narratables();
         
         @Override
@@ -752,6 +882,7 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
         public E set(int int_1, E itemListWidget$Item_1) {
             E itemListWidget$Item_2 = this.items.set(int_1, itemListWidget$Item_1);
             itemListWidget$Item_1.parent = DynamicEntryListWidget.this;
+            itemListWidget$Item_1.culled = culling;
             return itemListWidget$Item_2;
         }
         
@@ -759,6 +890,7 @@ public abstract class DynamicEntryListWidget<E extends DynamicEntryListWidget.En
         public void add(int int_1, E itemListWidget$Item_1) {
             this.items.add(int_1, itemListWidget$Item_1);
             itemListWidget$Item_1.parent = DynamicEntryListWidget.this;
+            itemListWidget$Item_1.culled = culling;
         }
         
         @Override
@@ -91,7 +91,7 @@ public abstract class DynamicSmoothScrollingEntryListWidget<E extends DynamicEnt
     @Override
     public boolean mouseScrolled(double mouseX, double mouseY, double amountX, double amountY) {
         for (E entry : visibleChildren()) {
-            if (entry.mouseScrolled(mouseX, mouseY, amountX, amountY)) {
+            if (!entry.isCulled() && entry.mouseScrolled(mouseX, mouseY, amountX, amountY)) {
                 return true;
             }
         }
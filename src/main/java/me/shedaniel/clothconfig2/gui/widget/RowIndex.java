@@ -0,0 +1,189 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package me.shedaniel.clothconfig2.gui.widget;
+
+/**
+ * Cumulative heights of the rows of a list, to find rows by their position with a binary search.
+ * Rows may also reach below their height by an extra height, such as an open dropdown.
+ * <br>
+ * Changing heights only marks the index as changed, {@link #update()} recomputes the offsets from the first changed row.
+ */
+final class RowIndex {
+    private int size;
+    private int[] heights = new int[0];
+    private int[] extraHeights = new int[0];
+    private int[] offsets = new int[1];
+    /**
+     * Rows with an extra height, in ascending order.
+     */
+    private int[] extendedRows = new int[0];
+    private int extendedRowCount;
+    private int maxBottom;
+    private int firstChanged;
+    private boolean extraHeightsChanged;
+    
+    /**
+     * Sets the number of rows, the heights of all rows must be set again if it changed.
+     */
+    void resize(int size) {
+        if (this.size != size) {
+            this.size = size;
+            this.heights = new int[size];
+            this.extraHeights = new int[size];
+            this.offsets = new int[size + 1];
+            this.firstChanged = 0;
+            this.extraHeightsChanged = true;
+        }
+    }
+    
+    /**
+     * Sets the height of a row, and its extra height, or a negative extra height if it has none.
+     *
+     * @return whether the row changed
+     */
+    boolean set(int row, int height, int extraHeight) {
+        boolean changed = false;
+        if (this.heights[row] != height) {
+            this.heights[row] = height;
+            this.firstChanged = Math.min(this.firstChanged, row);
+            changed = true;
+        }
+        if (this.extraHeights[row] != extraHeight) {
+            this.extraHeights[row] = extraHeight;
+            this.extraHeightsChanged = true;
+            changed = true;
+        }
+        return changed;
+    }
+    
+    /**
+     * Recomputes the offsets after rows have changed.
+     */
+    void update() {
+        boolean offsetsChanged = this.firstChanged < this.size;
+        for (int i = this.firstChanged; i < this.size; i++) {
+            this.offsets[i + 1] = this.offsets[i] + this.heights[i];
+        }
+        this.firstChanged = this.size;
+        if (offsetsChanged || this.extraHeightsChanged) {
+            this.extraHeightsChanged = false;
+            int count = 0;
+            int maxBottom = this.offsets[this.size];
+            for (int i = 0; i < this.size; i++) {
+                if (this.extraHeights[i] >= 0) {
+                    if (count == this.extendedRows.length) {
+                        int[] extendedRows = new int[Math.max(4, count * 2)];
+                        System.arraycopy(this.extendedRows, 0, extendedRows, 0, count);
+                        this.extendedRows = extendedRows;
+                    }
+                    this.extendedRows[count++] = i;
+                    maxBottom = Math.max(maxBottom, this.offsets[i + 1] + this.extraHeights[i]);
+                }
+            }
+            this.extendedRowCount = count;
+            this.maxBottom = maxBottom;
+        }
+    }
+    
+    int size() {
+        return this.size;
+    }
+    
+    int getHeight(int row) {
+        return this.heights[row];
+    }
+    
+    int getExtraHeight(int row) {
+        return this.extraHeights[row];
+    }
+    
+    /**
+     * Returns the offset of the top of a row, or of the bottom of the last row for {@code size()}.
+     */
+    int getTop(int row) {
+        return this.offsets[Math.max(0, Math.min(row, this.size))];
+    }
+    
+    /**
+     * Returns the lowest offset reached by any row, including extra heights.
+     */
+    int getMaxBottom() {
+        return this.maxBottom;
+    }
+    
+    /**
+     * Returns the first row ending below {@code y}, or {@code size()} if there is none.
+     */
+    int getFirstRowEndingAfter(int y) {
+        int low = 0;
+        int high = this.size - 1;
+        int found = this.size;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (this.offsets[mid + 1] > y) {
+                found = mid;
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Returns the last row starting at or above {@code y}, or {@code -1} if there is none.
+     */
+    int getLastRowStartingBefore(int y) {
+        int low = 0;
+        int high = this.size - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (this.offsets[mid] <= y) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Returns the row containing {@code y}, or {@code -1} if there is none.
+     */
+    int getRowAt(int y) {
+        if (y < 0)
+            return -1;
+        int row = getFirstRowEndingAfter(y);
+        return row == this.size ? -1 : row;
+    }
+    
+    int getExtendedRowCount() {
+        return this.extendedRowCount;
+    }
+    
+    /**
+     * Returns the {@code index}-th row with an extra height, in ascending order.
+     */
+    int getExtendedRow(int index) {
+        return this.extendedRows[index];
+    }
+}
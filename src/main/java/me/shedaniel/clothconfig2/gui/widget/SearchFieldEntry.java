@@ -19,10 +19,11 @@
 
 package me.shedaniel.clothconfig2.gui.widget;
 
-import com.google.common.collect.Iterators;
+import com.google.common.collect.Iterables;
 import me.shedaniel.clothconfig2.api.AbstractConfigEntry;
 import me.shedaniel.clothconfig2.api.AbstractConfigListEntry;
 import me.shedaniel.clothconfig2.api.ConfigScreen;
+import me.shedaniel.clothconfig2.gui.AbstractConfigScreen;
 import me.shedaniel.clothconfig2.gui.ClothConfigScreen;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawContext;
@@ -31,64 +32,64 @@ import net.minecraft.client.gui.Selectable;
 import net.minecraft.client.gui.widget.TextFieldWidget;
 import net.minecraft.text.Text;
 import net.minecraft.util.math.MathHelper;
+import org.jetbrains.annotations.Nullable;
+
 import java.util.*;
 
 public class SearchFieldEntry extends AbstractConfigListEntry<Object> {
     private final TextFieldWidget editBox;
+    private final SearchIndex searchIndex;
     private String[] lowerCases;
+    @Nullable
+    private SearchResults results;
     
     public SearchFieldEntry(ConfigScreen screen, ClothConfigScreen.ListWidget<AbstractConfigEntry<AbstractConfigEntry<?>>> listWidget) {
         super(Text.empty(), false);
+        this.searchIndex = new SearchIndex(() -> {
+            if (screen instanceof AbstractConfigScreen configScreen)
+                return Iterables.concat(configScreen.getCategorizedEntries().values());
+            return Collections.emptyList();
+        });
         this.editBox = new TextFieldWidget(MinecraftClient.getInstance().textRenderer, 0, 0, 100, 18, Text.empty());
         this.lowerCases = editBox.getText().isEmpty() ? new String[0] : editBox.getText().toLowerCase(Locale.ROOT).split(" ");
         this.editBox.setChangedListener(s -> {
             lowerCases = s.isEmpty() ? new String[0] : s.toLowerCase(Locale.ROOT).split(" ");
+            // Sub categories only show their entries matching the search
+            listWidget.requestRowIndexUpdate();
         });
         listWidget.entriesTransformer = entries -> {
-            return new AbstractList<AbstractConfigEntry<AbstractConfigEntry<?>>>() {
-                @Override
-                public Iterator<AbstractConfigEntry<AbstractConfigEntry<?>>> iterator() {
-                    if (editBox.getText().isEmpty())
-                        return entries.iterator();
-                    return Iterators.filter(entries.iterator(), entry -> {
-                        return entry.isDisplayed() && screen.matchesSearch(entry.getSearchTags());
-                    });
-                }
-                
-                @Override
-                public AbstractConfigEntry<AbstractConfigEntry<?>> get(int index) {
-                    return Iterators.get(iterator(), index);
-                }
-                
-                @Override
-                public void add(int index, AbstractConfigEntry<AbstractConfigEntry<?>> element) {
-                    entries.add(index, element);
-                }
-                
-                @Override
-                public AbstractConfigEntry<AbstractConfigEntry<?>> remove(int index) {
-                    AbstractConfigEntry<AbstractConfigEntry<?>> entry = get(index);
-                    return entries.remove(entry) ? entry : null;
-                }
-                
-                @Override
-                public boolean remove(Object o) {
-                    return entries.remove(o);
-                }
-                
-                @Override
-                public void clear() {
-                    entries.clear();
-                }
-                
-                @Override
-                public int size() {
-                    return Iterators.size(iterator());
-                }
-            };
+            if (editBox.getText().isEmpty())
+                return entries;
+            if (results == null || results.source != entries)
+                results = new SearchResults(entries);
+            return results;
         };
     }
     
+    @Override
+    public void tick() {
+        super.tick();
+        if (results != null) {
+            results.invalidateIfDisplayChanged();
+        }
+    }
+    
+    /**
+     * Invalidates the search index, e.g. after the search tags of an entry have changed.
+     */
+    public void invalidateSearchIndex() {
+        searchIndex.invalidate();
+        if (results != null) {
+            results.invalidate();
+        }
+    }
+    
+    public boolean matchesSearch(AbstractConfigEntry<?> entry) {
+        if (lowerCases.length == 0) return true;
+        if (!searchIndex.contains(entry)) return matchesSearch(entry.getSearchTags());
+        return searchIndex.matches(entry, lowerCases);
+    }
+    
     public boolean matchesSearch(Iterator<String> tags) {
         if (lowerCases.length == 0) return true;
         if (!tags.hasNext()) return true;
@@ -138,4 +139,105 @@ public class SearchFieldEntry extends AbstractConfigListEntry<Object> {
     public List<? extends Element> children() {
         return List.of(editBox);
     }
+    
+    /**
+     * The entries matching the current search, materialized once per query
+     * and refined in place when the query is only extended.
+     */
+    private class SearchResults extends AbstractList<AbstractConfigEntry<AbstractConfigEntry<?>>> {
+        private final List<AbstractConfigEntry<AbstractConfigEntry<?>>> source;
+        @Nullable
+        private List<AbstractConfigEntry<AbstractConfigEntry<?>>> matches;
+        private String query = "";
+        private boolean[] displayed = new boolean[0];
+        
+        private SearchResults(List<AbstractConfigEntry<AbstractConfigEntry<?>>> source) {
+            this.source = source;
+        }
+        
+        private List<AbstractConfigEntry<AbstractConfigEntry<?>>> matches() {
+            String text = editBox.getText();
+            if (matches == null || displayed.length != source.size()) {
+                this.matches = filter(source);
+                this.displayed = new boolean[source.size()];
+                for (int i = 0; i < displayed.length; i++) {
+                    displayed[i] = source.get(i).isDisplayed();
+                }
+            } else if (!text.equals(query)) {
+                // Extending the query can only narrow the matches down
+                this.matches = filter(text.startsWith(query) ? matches : source);
+            }
+            this.query = text;
+            return matches;
+        }
+        
+        private List<AbstractConfigEntry<AbstractConfigEntry<?>>> filter(List<AbstractConfigEntry<AbstractConfigEntry<?>>> entries) {
+            List<AbstractConfigEntry<AbstractConfigEntry<?>>> filtered = new ArrayList<>();
+            for (AbstractConfigEntry<AbstractConfigEntry<?>> entry : entries) {
+                if (entry.isDisplayed() && matchesSearch(entry)) {
+                    filtered.add(entry);
+                }
+            }
+            return filtered;
+        }
+        
+        private void invalidateIfDisplayChanged() {
+            if (matches == null) return;
+            if (displayed.length != source.size()) {
+                invalidate();
+                return;
+            }
+            for (int i = 0; i < displayed.length; i++) {
+                if (displayed[i] != source.get(i).isDisplayed()) {
+                    invalidate();
+                    return;
+                }
+            }
+        }
+        
+        private void invalidate() {
+            this.matches = null;
+        }
+        
+        @Override
+        public Iterator<AbstractConfigEntry<AbstractConfigEntry<?>>> iterator() {
+            // Iterate over a snapshot, as ticking entries may invalidate the matches
+            return Collections.unmodifiableList(matches()).iterator();
+        }
+        
+        @Override
+        public AbstractConfigEntry<AbstractConfigEntry<?>> get(int index) {
+            return matches().get(index);
+        }
+        
+        @Override
+        public void add(int index, AbstractConfigEntry<AbstractConfigEntry<?>> element) {
+            source.add(index, element);
+            invalidate();
+        }
+        
+        @Override
+        public AbstractConfigEntry<AbstractConfigEntry<?>> remove(int index) {
+            AbstractConfigEntry<AbstractConfigEntry<?>> entry = get(index);
+            return remove(entry) ? entry : null;
+        }
+        
+        @Override
+        public boolean remove(Object o) {
+            boolean removed = source.remove(o);
+            invalidate();
+            return removed;
+        }
+        
+        @Override
+        public void clear() {
+            source.clear();
+            invalidate();
+        }
+        
+        @Override
+        public int size() {
+            return matches().size();
+        }
+    }
 }
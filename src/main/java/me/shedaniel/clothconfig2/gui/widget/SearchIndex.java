@@ -0,0 +1,126 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package me.shedaniel.clothconfig2.gui.widget;
+
+import com.google.common.collect.Sets;
+import me.shedaniel.clothconfig2.api.AbstractConfigEntry;
+import me.shedaniel.clothconfig2.api.ReferenceProvider;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.minecraft.client.MinecraftClient;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Inverted index from lower-cased search tags to the entries of a screen,
+ * including entries nested in sub categories, multi elements and nested lists.
+ * <p>
+ * Query words are matched as substrings of the tags. Every suffix of a tag is indexed
+ * in a sorted map, so the tags containing a word are the ones with a suffix starting
+ * with the word, which is a range lookup instead of a scan over all tags.
+ */
+@Environment(EnvType.CLIENT)
+class SearchIndex {
+    private final Supplier<Iterable<AbstractConfigEntry<?>>> roots;
+    private final Set<AbstractConfigEntry<?>> indexedEntries = Sets.newIdentityHashSet();
+    private final Set<AbstractConfigEntry<?>> untaggedEntries = Sets.newIdentityHashSet();
+    private final NavigableMap<String, Set<AbstractConfigEntry<?>>> entriesBySuffix = new TreeMap<>();
+    private final Map<String, Set<AbstractConfigEntry<?>>> entriesByWord = new HashMap<>();
+    @Nullable
+    private String language;
+    private boolean valid;
+    
+    SearchIndex(Supplier<Iterable<AbstractConfigEntry<?>>> roots) {
+        this.roots = roots;
+    }
+    
+    void invalidate() {
+        this.valid = false;
+    }
+    
+    boolean contains(AbstractConfigEntry<?> entry) {
+        ensureIndexed();
+        return indexedEntries.contains(entry);
+    }
+    
+    /**
+     * @param entry the entry to test, must be {@link #contains(AbstractConfigEntry) contained} in this index
+     * @param words the lower-cased query words
+     * @return whether all words match one of the entry's tags, or the entry has no tags
+     */
+    boolean matches(AbstractConfigEntry<?> entry, String[] words) {
+        ensureIndexed();
+        if (untaggedEntries.contains(entry)) return true;
+        for (String word : words) {
+            if (!getEntriesMatching(word).contains(entry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private Set<AbstractConfigEntry<?>> getEntriesMatching(String word) {
+        Set<AbstractConfigEntry<?>> entries = entriesByWord.get(word);
+        if (entries == null) {
+            entries = Sets.newIdentityHashSet();
+            for (Set<AbstractConfigEntry<?>> suffixEntries : entriesBySuffix.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                entries.addAll(suffixEntries);
+            }
+            entriesByWord.put(word, entries);
+        }
+        return entries;
+    }
+    
+    private void ensureIndexed() {
+        String language = MinecraftClient.getInstance().getLanguageManager().getLanguage();
+        if (valid && language.equals(this.language)) return;
+        this.indexedEntries.clear();
+        this.untaggedEntries.clear();
+        this.entriesBySuffix.clear();
+        this.entriesByWord.clear();
+        this.language = language;
+        this.valid = true;
+        for (AbstractConfigEntry<?> entry : roots.get()) {
+            index(entry);
+        }
+    }
+    
+    private void index(AbstractConfigEntry<?> entry) {
+        if (!indexedEntries.add(entry)) return;
+        Iterator<String> tags = entry.getSearchTags();
+        if (!tags.hasNext()) {
+            untaggedEntries.add(entry);
+        }
+        while (tags.hasNext()) {
+            String tag = tags.next().toLowerCase(Locale.ROOT);
+            for (int i = 0; i <= tag.length(); i++) {
+                entriesBySuffix.computeIfAbsent(tag.substring(i), suffix -> Sets.newIdentityHashSet()).add(entry);
+            }
+        }
+        List<ReferenceProvider<?>> nestedEntries = entry.getReferenceProviderEntries();
+        if (nestedEntries != null) {
+            for (ReferenceProvider<?> nestedEntry : nestedEntries) {
+                index(nestedEntry.provideReferenceEntry());
+            }
+        }
+    }
+}
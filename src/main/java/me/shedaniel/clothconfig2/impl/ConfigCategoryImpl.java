@@ -30,6 +30,7 @@ import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -38,6 +39,7 @@ import java.util.function.Supplier;
 public class ConfigCategoryImpl implements ConfigCategory {
     private final ConfigBuilder builder;
     private final List<Object> data;
+    private int lazyEntries;
     @Nullable
     private Identifier background;
     private final Text categoryKey;
@@ -57,6 +59,17 @@ public class ConfigCategoryImpl implements ConfigCategory {
     
     @Override
     public List<Object> getEntries() {
+        if (lazyEntries > 0) {
+            for (int i = 0; i < data.size(); i++) {
+                if (data.get(i) instanceof LazyEntries lazy) {
+                    Collection<? extends AbstractConfigListEntry> entries = lazy.supplier.get();
+                    data.remove(i);
+                    data.addAll(i, entries);
+                    i += entries.size() - 1;
+                }
+            }
+            lazyEntries = 0;
+        }
         return data;
     }
     
@@ -66,6 +79,18 @@ public class ConfigCategoryImpl implements ConfigCategory {
         return this;
     }
     
+    @Override
+    public ConfigCategory addLazyEntries(Supplier<? extends Collection<? extends AbstractConfigListEntry>> entries) {
+        data.add(new LazyEntries(entries));
+        lazyEntries++;
+        return this;
+    }
+    
+    @Override
+    public boolean hasLazyEntries() {
+        return lazyEntries > 0;
+    }
+    
     @Override
     public ConfigCategory setCategoryBackground(Identifier identifier) {
         if (builder.hasTransparentBackground())
@@ -100,4 +125,12 @@ public class ConfigCategoryImpl implements ConfigCategory {
     public void setDescription(@Nullable Supplier<Optional<StringVisitable[]>> description) {
         this.description = description;
     }
+    
+    private static class LazyEntries {
+        private final Supplier<? extends Collection<? extends AbstractConfigListEntry>> supplier;
+        
+        private LazyEntries(Supplier<? extends Collection<? extends AbstractConfigListEntry>> supplier) {
+            this.supplier = supplier;
+        }
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package me.shedaniel.clothconfig2.impl;
+
+import me.shedaniel.clothconfig2.api.AbstractConfigEntry;
+import me.shedaniel.clothconfig2.api.Requirement;
+import me.shedaniel.clothconfig2.api.ValueHolder;
+import me.shedaniel.clothconfig2.gui.AbstractConfigScreen;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Requirement} over the values of a fixed set of {@link ValueHolder}s.
+ * <p>
+ * When all dependencies are entries of the same screen, the result is kept until one of
+ * the screen's entries reports a change through {@link AbstractConfigEntry#requestDirtyStateUpdate()}.
+ * Otherwise the requirement is re-evaluated on every check.
+ */
+@ApiStatus.Internal
+public final class DependentRequirement implements Requirement {
+    private final ValueHolder<?>[] dependencies;
+    private final Object[] values;
+    private final Predicate<Object[]> predicate;
+    @Nullable
+    private AbstractConfigScreen checkedScreen;
+    private int checkedChangeCount;
+    private boolean result;
+    
+    public DependentRequirement(Predicate<Object[]> predicate, ValueHolder<?>... dependencies) {
+        this.predicate = predicate;
+        this.dependencies = dependencies;
+        this.values = new Object[dependencies.length];
+    }
+    
+    @Override
+    public boolean check() {
+        AbstractConfigScreen screen = getScreen();
+        if (screen != null && screen == checkedScreen && screen.getChangeCount() == checkedChangeCount) {
+            return result;
+        }
+        for (int i = 0; i < dependencies.length; i++) {
+            values[i] = dependencies[i].getValue();
+        }
+        result = predicate.test(values);
+        checkedScreen = screen;
+        checkedChangeCount = screen == null ? 0 : screen.getChangeCount();
+        return result;
+    }
+    
+    /**
+     * @return the screen of all dependencies, or {@code null} if they do not share a screen
+     */
+    @Nullable
+    private AbstractConfigScreen getScreen() {
+        AbstractConfigScreen screen = null;
+        for (ValueHolder<?> dependency : dependencies) {
+            if (!(dependency instanceof AbstractConfigEntry<?> entry) || entry.getConfigScreen() == null)
+                return null;
+            if (screen == null) {
+                screen = entry.getConfigScreen();
+            } else if (screen != entry.getConfigScreen()) {
+                return null;
+            }
+        }
+        return screen;
+    }
+    
+    @Override
+    public Collection<ValueHolder<?>> getDependencies() {
+        return List.of(dependencies);
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package me.shedaniel.autoconfig.serializer;
+
+import com.google.gson.Gson;
+import me.shedaniel.autoconfig.ConfigData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryCacheSerializerTest {
+    @TempDir
+    Path dir;
+    
+    public static class TestConfig implements ConfigData {
+        int number = 1;
+        String text = "text";
+        List<String> list = new ArrayList<>(List.of("a", "b"));
+        Map<String, Integer> map = new LinkedHashMap<>(Map.of("x", 1));
+        Mode mode = Mode.FIRST;
+        Inner inner = new Inner();
+        transient int ignored = 7;
+    }
+    
+    public enum Mode {
+        FIRST, SECOND
+    }
+    
+    public static class Inner {
+        double value = 0.5;
+        int[] values = {1, 2, 3};
+    }
+    
+    /**
+     * Not part of the layout of {@link TestConfig}, its name has the same length as {@link Inner}.
+     */
+    public static class Other {
+        double value;
+        int[] values;
+    }
+    
+    /**
+     * Stores the config as JSON and counts how often it is parsed.
+     */
+    private static class JsonSerializer implements ConfigSerializer<TestConfig> {
+        private final Gson gson = new Gson();
+        private final Path path;
+        private int parsed;
+        
+        private JsonSerializer(Path path) {
+            this.path = path;
+        }
+        
+        @Override
+        public void serialize(TestConfig config) throws SerializationException {
+            try {
+                Files.writeString(path, gson.toJson(config));
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+        
+        @Override
+        public TestConfig deserialize() throws SerializationException {
+            parsed++;
+            try {
+                return gson.fromJson(Files.readString(path), TestConfig.class);
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+        
+        @Override
+        public TestConfig createDefault() {
+            return new TestConfig();
+        }
+        
+        @Override
+        public Path getConfigPath() {
+            return path;
+        }
+    }
+    
+    private Path configPath() {
+        return dir.resolve("config.json");
+    }
+    
+    private Path cachePath() {
+        return dir.resolve("config.json.cache");
+    }
+    
+    private static ConfigSerializer<TestConfig> wrap(JsonSerializer inner) {
+        return BinaryCacheSerializer.<TestConfig>wrap((definition, configClass) -> inner).create(null, TestConfig.class);
+    }
+    
+    private static TestConfig changedConfig() {
+        TestConfig config = new TestConfig();
+        config.number = 42;
+        config.text = "changed";
+        config.list.add("c");
+        config.map.put("y", 2);
+        config.mode = Mode.SECOND;
+        config.inner.value = 2.5;
+        config.inner.values = new int[]{4, 5};
+        config.ignored = 8;
+        return config;
+    }
+    
+    private static void assertChanged(TestConfig config) {
+        assertEquals(42, config.number);
+        assertEquals("changed", config.text);
+        assertEquals(List.of("a", "b", "c"), config.list);
+        assertEquals(Map.of("x", 1, "y", 2), config.map);
+        assertEquals(Mode.SECOND, config.mode);
+        assertEquals(2.5, config.inner.value);
+        assertEquals(List.of(4, 5), List.of(config.inner.values[0], config.inner.values[1]));
+        assertEquals(2, config.inner.values.length);
+    }
+    
+    @Test
+    public void readsConfigFromCache() throws Exception {
+        JsonSerializer inner = new JsonSerializer(configPath());
+        ConfigSerializer<TestConfig> serializer = wrap(inner);
+        serializer.serialize(changedConfig());
+        assertTrue(Files.isRegularFile(cachePath()));
+        
+        TestConfig config = serializer.deserialize();
+        assertEquals(0, inner.parsed);
+        assertChanged(config);
+        assertEquals(7, config.ignored);
+    }
+    
+    @Test
+    public void parsesChangedConfigFile() throws Exception {
+        JsonSerializer inner = new JsonSerializer(configPath());
+        ConfigSerializer<TestConfig> serializer = wrap(inner);
+        serializer.serialize(new TestConfig());
+        String original = Files.readString(configPath());
+        FileTime modified = Files.getLastModifiedTime(configPath());
+        
+        // Changed size
+        inner.serialize(changedConfig());
+        assertChanged(serializer.deserialize());
+        assertEquals(1, inner.parsed);
+        serializer.deserialize();
+        assertEquals(1, inner.parsed);
+        
+        // Changed modification time only
+        Files.writeString(configPath(), original);
+        Files.setLastModifiedTime(configPath(), modified);
+        serializer.deserialize();
+        assertEquals(2, inner.parsed);
+        Files.setLastModifiedTime(configPath(), FileTime.fromMillis(modified.toMillis() + 2000));
+        serializer.deserialize();
+        assertEquals(3, inner.parsed);
+        
+        // Changed contents of the same size and modification time
+        FileTime current = Files.getLastModifiedTime(configPath());
+        Files.writeString(configPath(), original.replace("\"number\":1", "\"number\":2"));
+        Files.setLastModifiedTime(configPath(), current);
+        assertEquals(2, serializer.deserialize().number);
+        assertEquals(4, inner.parsed);
+    }
+    
+    @Test
+    public void rejectsClassOutsideOfLayout() throws Exception {
+        JsonSerializer inner = new JsonSerializer(configPath());
+        ConfigSerializer<TestConfig> serializer = wrap(inner);
+        serializer.serialize(changedConfig());
+        
+        // Swap the class name in the cache, keeping the header valid
+        byte[] bytes = Files.readAllBytes(cachePath());
+        byte[] from = Inner.class.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] to = Other.class.getName().getBytes(StandardCharsets.UTF_8);
+        assertEquals(from.length, to.length);
+        int index = indexOf(bytes, from);
+        assertTrue(index >= 0);
+        System.arraycopy(to, 0, bytes, index, to.length);
+        Files.write(cachePath(), bytes);
+        
+        TestConfig config = serializer.deserialize();
+        assertEquals(1, inner.parsed);
+        assertChanged(config);
+        assertEquals(Inner.class, config.inner.getClass());
+        assertEquals(-1, indexOf(Files.readAllBytes(cachePath()), to));
+    }
+    
+    @Test
+    public void deletesUndecodableCache() throws Exception {
+        JsonSerializer inner = new JsonSerializer(configPath());
+        ConfigSerializer<TestConfig> serializer = wrap(inner);
+        serializer.serialize(changedConfig());
+        
+        // Keep the header, which still matches the config file, but cut off the values
+        byte[] bytes = Files.readAllBytes(cachePath());
+        byte[] truncated = Arrays.copyOf(bytes, 41);
+        Files.write(cachePath(), truncated);
+        
+        assertChanged(serializer.deserialize());
+        assertEquals(1, inner.parsed);
+        // The cache was dropped and written anew, so it is used again
+        assertArrayEquals(bytes, Files.readAllBytes(cachePath()));
+        assertChanged(serializer.deserialize());
+        assertEquals(1, inner.parsed);
+    }
+    
+    private static int indexOf(byte[] bytes, byte[] part) {
+        outer:
+        for (int i = 0; i <= bytes.length - part.length; i++) {
+            for (int j = 0; j < part.length; j++) {
+                if (bytes[i + j] != part[j])
+                    continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package me.shedaniel.autoconfig.serializer;
+
+import com.google.gson.*;
+import com.google.gson.annotations.SerializedName;
+import me.shedaniel.autoconfig.ConfigData;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigDataTypeAdapterFactoryTest {
+    
+    public static class TestConfig implements ConfigData {
+        static int constant = 3;
+        int number = 1;
+        long big = Long.MAX_VALUE;
+        double ratio = 0.25;
+        boolean enabled = true;
+        float scale = 1.5f;
+        Integer boxed = null;
+        String text = "text";
+        @SerializedName(value = "renamed", alternate = {"oldName", "olderName"})
+        int renamedField = 5;
+        List<String> list = new ArrayList<>(List.of("a", "b"));
+        Map<String, Integer> map = new LinkedHashMap<>(Map.of("x", 1));
+        Mode mode = Mode.SECOND;
+        Base base = new Derived();
+        Object anything = 12;
+        Nested nested = new Nested();
+        @Skipped
+        String skipped = "skipped";
+        transient int ignored = 7;
+    }
+    
+    public enum Mode {
+        FIRST, SECOND
+    }
+    
+    public static class Base {
+        int baseValue = 1;
+    }
+    
+    public static class Derived extends Base {
+        int derivedValue = 2;
+    }
+    
+    public static class Nested implements ConfigData {
+        int[] values = {1, 2, 3};
+        String name = "nested";
+    }
+    
+    @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+    public @interface Skipped {
+    }
+    
+    private static final ExclusionStrategy SKIP_ANNOTATED = new ExclusionStrategy() {
+        @Override
+        public boolean shouldSkipField(FieldAttributes field) {
+            return field.getAnnotation(Skipped.class) != null;
+        }
+        
+        @Override
+        public boolean shouldSkipClass(Class<?> clazz) {
+            return false;
+        }
+    };
+    
+    private static Gson plain() {
+        return new GsonBuilder().setPrettyPrinting().setExclusionStrategies(SKIP_ANNOTATED).create();
+    }
+    
+    private static Gson fast() {
+        return new GsonBuilder().setPrettyPrinting().setExclusionStrategies(SKIP_ANNOTATED)
+                .registerTypeAdapterFactory(new ConfigDataTypeAdapterFactory(SKIP_ANNOTATED)).create();
+    }
+    
+    @Test
+    public void usesFactoryForConfigData() {
+        assertTrue(fast().getAdapter(TestConfig.class).getClass().getName().startsWith(ConfigDataTypeAdapterFactory.class.getName()));
+        assertTrue(fast().getAdapter(Nested.class).getClass().getName().startsWith(ConfigDataTypeAdapterFactory.class.getName()));
+    }
+    
+    @Test
+    public void writesLikeGson() {
+        TestConfig config = new TestConfig();
+        config.boxed = 4;
+        config.list.add("c");
+        assertEquals(plain().toJson(config), fast().toJson(config));
+        config.boxed = null;
+        config.text = null;
+        config.base = new Base();
+        config.anything = List.of("list");
+        assertEquals(plain().toJson(config), fast().toJson(config));
+        
+        String json = fast().toJson(config);
+        assertFalse(json.contains("skipped"));
+        assertFalse(json.contains("ignored"));
+        assertFalse(json.contains("constant"));
+        assertTrue(json.contains("\"renamed\""));
+    }
+    
+    @Test
+    public void readsLikeGson() {
+        // Fields written by their runtime type are read back as their declared type by either
+        String written = plain().toJson(new TestConfig());
+        assertEquals(plain().toJson(plain().fromJson(written, TestConfig.class)), plain().toJson(fast().fromJson(written, TestConfig.class)));
+        
+        // Alternate names, null primitives, quoted booleans, unknown and excluded fields
+        String json = "{\"oldName\": 9, \"number\": null, \"ratio\": null, \"enabled\": \"false\", \"big\": 7,"
+                      + " \"unknown\": {\"a\": [1, 2]}, \"skipped\": \"read\", \"ignored\": 1, \"boxed\": null,"
+                      + " \"nested\": {\"values\": [4], \"name\": null}, \"mode\": \"FIRST\"}";
+        TestConfig expected = plain().fromJson(json, TestConfig.class);
+        TestConfig actual = fast().fromJson(json, TestConfig.class);
+        assertEquals(plain().toJson(expected), plain().toJson(actual));
+        assertEquals(9, actual.renamedField);
+        assertEquals(1, actual.number);
+        assertFalse(actual.enabled);
+        assertEquals("skipped", actual.skipped);
+        assertEquals(7, actual.ignored);
+        
+        assertEquals(plain().toJson(plain().fromJson("{\"olderName\": 3}", TestConfig.class)),
+                plain().toJson(fast().fromJson("{\"olderName\": 3}", TestConfig.class)));
+    }
+    
+    public static class Section implements ConfigData {
+        int i0 = 0;
+        int i1 = 1;
+        int i2 = 2;
+        int i3 = 3;
+        int i4 = 4;
+        int i5 = 5;
+        int i6 = 6;
+        int i7 = 7;
+        int i8 = 8;
+        int i9 = 9;
+        int i10 = 10;
+        int i11 = 11;
+        int i12 = 12;
+        int i13 = 13;
+        int i14 = 14;
+        int i15 = 15;
+        int i16 = 16;
+        int i17 = 17;
+        int i18 = 18;
+        int i19 = 19;
+        double d0 = 0.5;
+        double d1 = 1.5;
+        double d2 = 2.5;
+        double d3 = 3.5;
+        double d4 = 4.5;
+        double d5 = 5.5;
+        double d6 = 6.5;
+        double d7 = 7.5;
+        double d8 = 8.5;
+        double d9 = 9.5;
+        boolean b0 = false;
+        boolean b1 = true;
+        boolean b2 = false;
+        boolean b3 = true;
+        boolean b4 = false;
+        boolean b5 = true;
+        boolean b6 = false;
+        boolean b7 = true;
+        boolean b8 = false;
+        boolean b9 = true;
+        String s0 = "value 0";
+        String s1 = "value 1";
+        String s2 = "value 2";
+        String s3 = "value 3";
+        String s4 = "value 4";
+        String s5 = "value 5";
+        String s6 = "value 6";
+        String s7 = "value 7";
+        String s8 = "value 8";
+        String s9 = "value 9";
+    }
+    
+    public static class LargeConfig implements ConfigData {
+        Section section0 = new Section();
+        Section section1 = new Section();
+        Section section2 = new Section();
+        Section section3 = new Section();
+        Section section4 = new Section();
+        Section section5 = new Section();
+        Section section6 = new Section();
+        Section section7 = new Section();
+        Section section8 = new Section();
+        Section section9 = new Section();
+    }
+    
+    /**
+     * Writes and parses a config of 500 fields, once through Gson's reflective adapter and once through the factory.
+     * Run with the {@code benchmark} task, the timings are published as report entries.
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmarkFiveHundredFields(TestReporter reporter) {
+        Gson plain = plain();
+        Gson fast = fast();
+        LargeConfig config = new LargeConfig();
+        String json = plain.toJson(config);
+        assertEquals(json, fast.toJson(config));
+        
+        int warmup = 2_000;
+        int rounds = 5_000;
+        roundTrips(plain, config, warmup);
+        roundTrips(fast, config, warmup);
+        long start = System.nanoTime();
+        roundTrips(plain, config, rounds);
+        long reflective = System.nanoTime() - start;
+        start = System.nanoTime();
+        roundTrips(fast, config, rounds);
+        long factory = System.nanoTime() - start;
+        
+        reporter.publishEntry("reflective", String.format("%.1f us per round trip", reflective / 1000.0 / rounds));
+        reporter.publishEntry("factory", String.format("%.1f us per round trip", factory / 1000.0 / rounds));
+    }
+    
+    private static void roundTrips(Gson gson, LargeConfig config, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            LargeConfig read = gson.fromJson(gson.toJson(config), LargeConfig.class);
+            assertEquals(config.section9.s9, read.section9.s9);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package me.shedaniel.autoconfig.serializer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ConfigFileWriterTest {
+    @TempDir
+    Path dir;
+    
+    private static boolean write(Path path, String contents) throws IOException {
+        return ConfigFileWriter.write(path, writer -> writer.write(contents));
+    }
+    
+    @Test
+    public void skipsUnchangedFile() throws IOException {
+        Path path = dir.resolve("config.json");
+        assertTrue(write(path, "{\"a\": 1}"));
+        assertFalse(write(path, "{\"a\": 1}"));
+        assertTrue(write(path, "{\"a\": 2}"));
+        assertEquals("{\"a\": 2}", Files.readString(path));
+        assertTrue(write(path, "{\"a\": 2}\n"));
+        assertEquals("{\"a\": 2}\n", Files.readString(path));
+    }
+    
+    @Test
+    public void keepsPermissions() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path path = dir.resolve("config.json");
+        Files.writeString(path, "old");
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(path, permissions);
+        
+        assertTrue(write(path, "new"));
+        assertEquals("new", Files.readString(path));
+        assertEquals(permissions, Files.getPosixFilePermissions(path));
+    }
+    
+    @Test
+    public void writesThroughSymbolicLink() throws IOException {
+        Path target = Files.createDirectories(dir.resolve("shared")).resolve("config.json");
+        Files.writeString(target, "old");
+        Path link = dir.resolve("config.json");
+        try {
+            Files.createSymbolicLink(link, target);
+        } catch (UnsupportedOperationException | IOException e) {
+            assumeTrue(false, "Symbolic links are not supported");
+        }
+        
+        assertTrue(write(link, "new"));
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals(target, Files.readSymbolicLink(link));
+        assertEquals("new", Files.readString(target));
+        try (var files = Files.list(dir)) {
+            assertEquals(2, files.count(), "no temporary file is left behind");
+        }
+    }
+    
+    @Test
+    public void writesBytesLikeText() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path path = dir.resolve("config.toml");
+        Files.writeString(path, "a = 1");
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-------");
+        Files.setPosixFilePermissions(path, permissions);
+        
+        assertFalse(ConfigFileWriter.write(path, "a = 1".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(ConfigFileWriter.write(path, "a = 2".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("a = 2", Files.readString(path));
+        assertEquals(permissions, Files.getPosixFilePermissions(path));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package me.shedaniel.autoconfig.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigCopierTest {
+    
+    enum Color {
+        RED, GREEN, BLUE
+    }
+    
+    static class Config {
+        EnumSet<Color> colors = EnumSet.of(Color.RED, Color.BLUE);
+        EnumSet<Color> noColors = EnumSet.noneOf(Color.class);
+        EnumMap<Color, List<String>> names = new EnumMap<>(Color.class);
+        TreeMap<String, Integer> byLength = new TreeMap<>(Comparator.comparing(String::length).thenComparing(Comparator.reverseOrder()));
+        
+        Config() {
+            names.put(Color.GREEN, new ArrayList<>(List.of("lime", "olive")));
+            byLength.put("aaa", 3);
+            byLength.put("b", 1);
+            byLength.put("cc", 2);
+        }
+    }
+    
+    @Test
+    public void keepsEnumAndSortedTypes() {
+        Config original = new Config();
+        Config copy = ConfigCopier.copyExactly(original);
+        assertNotNull(copy);
+        assertNotSame(original, copy);
+        
+        assertNotSame(original.colors, copy.colors);
+        assertEquals(EnumSet.of(Color.RED, Color.BLUE), copy.colors);
+        copy.colors.add(Color.GREEN);
+        assertFalse(original.colors.contains(Color.GREEN));
+        
+        assertNotSame(original.noColors, copy.noColors);
+        assertTrue(copy.noColors.isEmpty());
+        copy.noColors.add(Color.RED);
+        assertTrue(original.noColors.isEmpty());
+        
+        assertNotSame(original.names, copy.names);
+        assertEquals(original.names, copy.names);
+        assertNotSame(original.names.get(Color.GREEN), copy.names.get(Color.GREEN));
+        
+        assertNotSame(original.byLength, copy.byLength);
+        assertSame(original.byLength.comparator(), copy.byLength.comparator());
+        assertEquals(List.of("b", "cc", "aaa"), new ArrayList<>(copy.byLength.keySet()));
+        copy.byLength.put("dd", 2);
+        assertEquals(List.of("b", "dd", "cc", "aaa"), new ArrayList<>(copy.byLength.keySet()));
+        assertFalse(original.byLength.containsKey("dd"));
+        
+        assertTrue(ConfigCopier.contentEquals(original, new Config()));
+    }
+    
+    static class Unmodifiable {
+        Set<String> tags = Collections.unmodifiableSet(new HashSet<>(Set.of("a")));
+        StringBuilder text = new StringBuilder("text");
+    }
+    
+    @Test
+    public void reportsInexactCopies() {
+        Unmodifiable original = new Unmodifiable();
+        Unmodifiable copy = ConfigCopier.copy(original);
+        assertEquals(original.tags, copy.tags);
+        assertSame(original.text, copy.text);
+        assertNull(ConfigCopier.copyExactly(original));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of Cloth Config.
+ * Copyright (C) 2020 - 2021 shedaniel
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package me.shedaniel.clothconfig2.gui.widget;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RowIndexTest {
+    
+    private static RowIndex create(int[] heights, int[] extraHeights) {
+        RowIndex index = new RowIndex();
+        index.resize(heights.length);
+        for (int i = 0; i < heights.length; i++) {
+            index.set(i, heights[i], extraHeights[i]);
+        }
+        index.update();
+        return index;
+    }
+    
+    private static int linearRowAt(int[] heights, int y) {
+        if (y < 0)
+            return -1;
+        int top = 0;
+        for (int i = 0; i < heights.length; i++) {
+            top += heights[i];
+            if (top > y)
+                return i;
+        }
+        return -1;
+    }
+    
+    @Test
+    public void findsRowsLikeALinearScan() {
+        Random random = new Random(42);
+        int[] heights = new int[500];
+        int[] extraHeights = new int[500];
+        for (int i = 0; i < heights.length; i++) {
+            heights[i] = random.nextInt(4) == 0 ? 0 : 20 + random.nextInt(60);
+            extraHeights[i] = -1;
+        }
+        RowIndex index = create(heights, extraHeights);
+        
+        int total = 0;
+        for (int i = 0; i < heights.length; i++) {
+            assertEquals(total, index.getTop(i));
+            total += heights[i];
+        }
+        assertEquals(total, index.getTop(heights.length));
+        assertEquals(total, index.getMaxBottom());
+        for (int y = -5; y <= total + 5; y++) {
+            assertEquals(linearRowAt(heights, y), index.getRowAt(y), "row at " + y);
+        }
+    }
+    
+    @Test
+    public void findsVisibleRange() {
+        RowIndex index = create(new int[]{24, 24, 48, 24}, new int[]{-1, -1, -1, -1});
+        // Rows 1 (24..48) and 2 (48..96) overlap 30..60
+        assertEquals(1, index.getFirstRowEndingAfter(30));
+        assertEquals(2, index.getLastRowStartingBefore(60));
+        assertEquals(4, index.getFirstRowEndingAfter(120));
+        assertEquals(-1, index.getLastRowStartingBefore(-1));
+    }
+    
+    @Test
+    public void updatesOffsetsAfterChangedRow() {
+        RowIndex index = create(new int[]{10, 10, 10, 10}, new int[]{-1, -1, -1, -1});
+        index.set(2, 30, -1);
+        index.update();
+        assertEquals(20, index.getTop(2));
+        assertEquals(50, index.getTop(3));
+        assertEquals(60, index.getMaxBottom());
+        
+        index.set(0, 0, -1);
+        index.update();
+        assertEquals(0, index.getTop(1));
+        assertEquals(50, index.getMaxBottom());
+    }
+    
+    @Test
+    public void tracksExtraHeights() {
+        RowIndex index = create(new int[]{10, 10, 10}, new int[]{-1, 100, -1});
+        assertEquals(1, index.getExtendedRowCount());
+        assertEquals(1, index.getExtendedRow(0));
+        assertEquals(120, index.getMaxBottom());
+        
+        index.set(1, 10, -1);
+        index.update();
+        assertEquals(0, index.getExtendedRowCount());
+        assertEquals(30, index.getMaxBottom());
+    }
+    
+    /**
+     * Looks up the visible range of many frames over 10,000 rows, changing single rows in between,
+     * once by summing row heights from the top like the list did before and once through the index.
+     * Run with the {@code benchmark} task, the timings are published as report entries.
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmarkTenThousandRows(TestReporter reporter) {
+        int rows = 10_000;
+        int[] heights = new int[rows];
+        int[] extraHeights = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            heights[i] = 24;
+            extraHeights[i] = -1;
+        }
+        RowIndex index = create(heights, extraHeights);
+        int viewport = 400;
+        int frames = 10_000;
+        
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            int scroll = (frame * 37) % (rows * 24 - viewport);
+            int first = linearRowAt(heights, scroll);
+            int last = linearRowAt(heights, scroll + viewport);
+            checksum += first + last;
+            if (frame % 1000 == 0)
+                heights[rows - 1 - frame % rows] = frame % 2 == 0 ? 48 : 24;
+        }
+        long linear = System.nanoTime() - start;
+        
+        for (int i = 0; i < rows; i++) {
+            heights[i] = 24;
+        }
+        long indexedChecksum = 0;
+        start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            int scroll = (frame * 37) % (rows * 24 - viewport);
+            int first = index.getFirstRowEndingAfter(scroll);
+            int last = index.getLastRowStartingBefore(scroll + viewport);
+            indexedChecksum += first + last;
+            if (frame % 1000 == 0) {
+                heights[rows - 1 - frame % rows] = frame % 2 == 0 ? 48 : 24;
+                index.set(rows - 1 - frame % rows, heights[rows - 1 - frame % rows], -1);
+                index.update();
+            }
+        }
+        long indexed = System.nanoTime() - start;
+        
+        assertEquals(checksum, indexedChecksum);
+        reporter.publishEntry("linear", String.format("%.1f ns per frame", (double) linear / frames));
+        reporter.publishEntry("indexed", String.format("%.1f ns per frame", (double) indexed / frames));
+    }
+}